@@ -0,0 +1,109 @@
+package benchmarks;
+
+import models.Customer;
+import models.Owner;
+import models.Videogame;
+import org.openjdk.jmh.annotations.*;
+import services.CartService;
+import services.GameService;
+import services.SalesStats;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CartService totals and checkouts against catalogs of 1k to 1M games.
+ * Each benchmark thread has its own customer and cart; the catalog (and the stock counters
+ * checkout claims) is shared, so the 4-thread checkout variant measures contention on stock.
+ * salesReport reads the best sellers and rates fed by every checkout the other benchmarks made.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CartServiceBenchmark {
+
+    static final int CART_SIZE = 10;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private final CartService cartService = new CartService();
+    private final Owner owner = new Owner("owner", "owner123");
+    private GameService gameService;
+    private int firstId;
+
+    @State(Scope.Thread)
+    public static class Session {
+        Customer customer;
+        Videogame[] picks;
+
+        // Accepts the shared catalog. Gives this thread a customer whose cart holds CART_SIZE random games.
+        @Setup(Level.Trial)
+        public void setUp(CartServiceBenchmark bench) {
+            customer = Fixtures.customer("bench-" + Thread.currentThread().getId());
+            picks = new Videogame[CART_SIZE];
+            for (int i = 0; i < CART_SIZE; i++) {
+                picks[i] = bench.gameService.findByID(bench.firstId + ThreadLocalRandom.current().nextInt(bench.catalogSize));
+                bench.cartService.addCart(customer, picks[i]);
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gameService = Fixtures.gameService(catalogSize);
+        firstId = gameService.listAll().get(0).getID();
+    }
+
+    // =======================
+    // total
+    // =======================
+
+    @Benchmark
+    public long total(Session s) {
+        return cartService.total(s.customer);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long totalShared(Session s) {
+        return cartService.total(s.customer);
+    }
+
+    // =======================
+    // checkout (refills the cart with the same games, then checks out)
+    // =======================
+
+    @Benchmark
+    public Customer checkout(Session s) {
+        return refillAndCheckout(s);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Customer checkoutShared(Session s) {
+        return refillAndCheckout(s);
+    }
+
+    // =======================
+    // salesReport
+    // =======================
+
+    @Benchmark
+    public SalesStats.Report salesReport() {
+        return cartService.salesReport(owner, 10);
+    }
+
+    private Customer refillAndCheckout(Session s) {
+        if (s.customer.getCart().isEmpty()) {
+            for (Videogame vg : s.picks) {
+                cartService.addCart(s.customer, vg);
+            }
+        }
+        cartService.checkout(s.customer);
+        return s.customer;
+    }
+}
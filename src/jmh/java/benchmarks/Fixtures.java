@@ -0,0 +1,93 @@
+package benchmarks;
+
+import models.Customer;
+import models.User;
+import models.Videogame;
+import services.GameService;
+import services.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Shared setup for the benchmarks: deterministic catalogs and user bases of a given size.
+ *
+ * Titles are built from two words of a fixed vocabulary plus the index ("Dragon Farm 1234"), so a
+ * two-word title query matches about size / 4096 games at every catalog size.
+ */
+final class Fixtures {
+
+    static final String[] WORDS = {
+            "star", "quest", "farm", "days", "puzzle", "master", "dragon", "knight",
+            "space", "racer", "shadow", "legend", "island", "empire", "ninja", "robot",
+            "castle", "galaxy", "zombie", "pirate", "wizard", "hero", "storm", "forest",
+            "city", "rally", "tactics", "dungeon", "ocean", "cyber", "frontier", "kingdom",
+            "arena", "blade", "comet", "desert", "echo", "fable", "glacier", "harbor",
+            "iron", "jungle", "karma", "lunar", "metro", "nova", "orbit", "prism",
+            "quartz", "rune", "saga", "titan", "umbra", "vortex", "warden", "xenon",
+            "yonder", "zenith", "anchor", "beacon", "cipher", "delta", "ember", "falcon"
+    };
+
+    private Fixtures() {}
+
+    // Accepts catalog size. Returns that many games with varied titles, genres and prices, and stock that will not run out.
+    static List<Videogame> games(int size) {
+        Videogame.Genre[] genres = Videogame.Genre.values();
+        List<Videogame> games = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            games.add(new Videogame(title(i), genres[i % genres.length], description(i, genres[i % genres.length]),
+                    (5 + i % 60) * 100L + 99, Integer.MAX_VALUE / 2));
+        }
+        return games;
+    }
+
+    // Accepts catalog size. Returns a GameService holding exactly that catalog with every index (trigrams included) built.
+    static GameService gameService(int size) {
+        return gameService(size, GameService.Storage.HEAP);
+    }
+
+    // Same, with the games' fields kept where storage says (see GameService.Storage).
+    static GameService gameService(int size, GameService.Storage storage) {
+        GameService gameService = new GameService(storage);
+        for (Videogame vg : gameService.listAll()) {
+            gameService.removeGame(null, vg); // drop the template games
+        }
+        for (Videogame vg : games(size)) {
+            gameService.addGame(null, vg);
+        }
+        return gameService;
+    }
+
+    // Accepts user-base size. Returns that many accounts named user0 .. user(size-1), password "pass" + index.
+    static List<UserService.Account> accounts(int size) {
+        List<UserService.Account> accounts = new ArrayList<>(size);
+        accounts.add(new UserService.Account("owner", "owner123", User.Role.OWNER));
+        for (int i = 1; i < size; i++) {
+            accounts.add(new UserService.Account(username(i), "pass" + i, User.Role.CUSTOMER));
+        }
+        return accounts;
+    }
+
+    static String title(int i) {
+        return capitalize(WORDS[i % WORDS.length]) + " " + capitalize(WORDS[(i / WORDS.length) % WORDS.length]) + " " + i;
+    }
+
+    // Three vocabulary words and the genre, so full-text queries have realistic posting lists ("A racer rpg game about ...").
+    static String description(int i, Videogame.Genre genre) {
+        return "A " + WORDS[(i * 7 + 3) % WORDS.length] + " " + genre.name().toLowerCase(Locale.ROOT) + " game about "
+                + WORDS[(i * 13 + 5) % WORDS.length] + " and " + WORDS[(i * 29 + 11) % WORDS.length] + ".";
+    }
+
+    static String username(int i) {
+        return "user" + i;
+    }
+
+    static Customer customer(String name) {
+        return new Customer(name, "secret");
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
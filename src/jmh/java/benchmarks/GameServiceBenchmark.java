@@ -0,0 +1,204 @@
+package benchmarks;
+
+import models.Owner;
+import models.Videogame;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import services.GameService;
+import services.InventoryReport;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameService lookups at catalog sizes from 1k to 1M games.
+ * Every benchmark has a single-threaded and a 4-thread variant sharing one service, which shows
+ * what the optimistic reads cost when sessions hit the catalog at the same time.
+ * Each size runs against both storage engines: heap objects and off-heap columns behind views.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class GameServiceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int catalogSize;
+
+    @Param({"HEAP", "COLUMNAR"})
+    public GameService.Storage storage;
+
+    private GameService gameService;
+    private int firstId;
+    private final Owner owner = new Owner("owner", "owner123");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gameService = Fixtures.gameService(catalogSize, storage);
+        firstId = gameService.listAll().get(0).getID();
+    }
+
+    // =======================
+    // findByID
+    // =======================
+
+    @Benchmark
+    public Videogame findByID() {
+        return gameService.findByID(randomId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Videogame findByIDShared() {
+        return gameService.findByID(randomId());
+    }
+
+    // =======================
+    // findByTitle
+    // =======================
+
+    @Benchmark
+    public List<Videogame> findByTitle() {
+        return gameService.findByTitle(randomQuery());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Videogame> findByTitleShared() {
+        return gameService.findByTitle(randomQuery());
+    }
+
+    // =======================
+    // findByTitleFuzzy (the same two-word queries with one letter dropped, top 20)
+    // =======================
+
+    @Benchmark
+    public List<Videogame> findByTitleFuzzy() {
+        return gameService.findByTitleFuzzy(randomTypo(), 2, 20);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Videogame> findByTitleFuzzyShared() {
+        return gameService.findByTitleFuzzy(randomTypo(), 2, 20);
+    }
+
+    // =======================
+    // searchText (two vocabulary words over titles and descriptions, top 20 by BM25)
+    // =======================
+
+    @Benchmark
+    public List<Videogame> searchText() {
+        return gameService.searchText(randomQuery(), 20);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Videogame> searchTextShared() {
+        return gameService.searchText(randomQuery(), 20);
+    }
+
+    // =======================
+    // listAll (walks the whole listing, as the browse menu does)
+    // =======================
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void listAll(Blackhole bh) {
+        for (Videogame vg : gameService.listAll()) {
+            bh.consume(vg);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(4)
+    public void listAllShared(Blackhole bh) {
+        for (Videogame vg : gameService.listAll()) {
+            bh.consume(vg);
+        }
+    }
+
+    // =======================
+    // listPage (one browse page of 20 from a random position)
+    // =======================
+
+    @Benchmark
+    public GameService.Page listPage() {
+        return gameService.listPage(Integer.toString(randomId() - 1), 20);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public GameService.Page listPageShared() {
+        return gameService.listPage(Integer.toString(randomId() - 1), 20);
+    }
+
+    // =======================
+    // listByPrice (the 20 cheapest games, from the price index)
+    // =======================
+
+    @Benchmark
+    public GameService.Page cheapestPage() {
+        return gameService.listByPrice(null, 20);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public GameService.Page cheapestPageShared() {
+        return gameService.listByPrice(null, 20);
+    }
+
+    // =======================
+    // search (one genre in a $10 band: a bitset walk plus a price check per game on the heap, a column scan off-heap)
+    // =======================
+
+    @Benchmark
+    public List<Videogame> searchGenrePrice() {
+        return gameService.search(null, randomGenre(), 2000, 2999);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Videogame> searchGenrePriceShared() {
+        return gameService.search(null, randomGenre(), 2000, 2999);
+    }
+
+    // =======================
+    // inventoryReport (whole-catalog parallel pass: per-genre totals and price histograms)
+    // =======================
+
+    @Benchmark
+    public InventoryReport inventoryReport() {
+        return gameService.inventoryReport(owner);
+    }
+
+    // =======================
+    // HELPERS
+    // =======================
+
+    private int randomId() {
+        return firstId + ThreadLocalRandom.current().nextInt(catalogSize);
+    }
+
+    private static Videogame.Genre randomGenre() {
+        Videogame.Genre[] genres = Videogame.Genre.values();
+        return genres[ThreadLocalRandom.current().nextInt(genres.length)];
+    }
+
+    private static String randomQuery() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        return Fixtures.WORDS[rnd.nextInt(Fixtures.WORDS.length)] + " " + Fixtures.WORDS[rnd.nextInt(Fixtures.WORDS.length)];
+    }
+
+    // Like randomQuery(), with one letter missing from the second word ("dragon frm").
+    private static String randomTypo() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String second = Fixtures.WORDS[rnd.nextInt(Fixtures.WORDS.length)];
+        int cut = rnd.nextInt(second.length());
+        return Fixtures.WORDS[rnd.nextInt(Fixtures.WORDS.length)] + " " + second.substring(0, cut) + second.substring(cut + 1);
+    }
+}
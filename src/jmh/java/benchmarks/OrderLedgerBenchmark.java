@@ -0,0 +1,68 @@
+package benchmarks;
+
+import models.Customer;
+import models.ShoppingCart;
+import models.Videogame;
+import org.openjdk.jmh.annotations.*;
+import services.OrderLedger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * What CartService.checkout() waits for with a ledger attached: OrderLedger.append() until the order is on disk.
+ * With one thread every order pays a whole fsync; with 8 threads orders arriving during a flush share the next one
+ * (group commit), so throughput should scale well past the single-threaded figure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class OrderLedgerBenchmark {
+
+    @Param({"1", "10"})
+    public int lines;
+
+    private Path dir;
+    private OrderLedger ledger;
+    private List<ShoppingCart.Line> order;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("s2k-ledger");
+        ledger = new OrderLedger(dir);
+        Customer customer = Fixtures.customer("bench");
+        for (Videogame vg : Fixtures.games(lines)) {
+            customer.getCart().add(vg);
+        }
+        order = List.copyOf(customer.getCart().getLines());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ledger.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        return ledger.append("bench", order, 4999, System.currentTimeMillis()).join();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long appendShared() {
+        return ledger.append("bench", order, 4999, System.currentTimeMillis()).join();
+    }
+}
@@ -0,0 +1,102 @@
+package benchmarks;
+
+import models.User;
+import org.openjdk.jmh.annotations.*;
+import services.UserBulkLoader;
+import services.UserJournal;
+import services.UserService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What MainUI.loadUsers() and saveUsers() do with users.txt, at 1k to 1M users:
+ * loading goes through UserBulkLoader into a fresh UserService, saving writes the snapshot through UserJournal.writeSnapshot().
+ *
+ * The multi-threaded variants run several independent load/save cycles at once (one file per thread), which is what
+ * several store instances sharing a disk look like. The bulk loader itself already parses on every core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class UserPersistenceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int userCount;
+
+    private List<User> users;
+
+    @State(Scope.Thread)
+    public static class Workspace {
+        Path dir;
+        Path usersFile;
+        Path saveFile;
+
+        // Accepts the shared user base. Writes this thread's users.txt to load from.
+        @Setup(Level.Trial)
+        public void setUp(UserPersistenceBenchmark bench) throws IOException {
+            dir = Files.createTempDirectory("s2k-bench");
+            usersFile = dir.resolve("users.txt");
+            saveFile = dir.resolve("saved.txt");
+            UserJournal.writeSnapshot(usersFile, bench.users);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(usersFile);
+            Files.deleteIfExists(saveFile);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserService userService = new UserService();
+        userService.bulkRegister(Fixtures.accounts(userCount));
+        users = userService.getUsers();
+    }
+
+    // =======================
+    // loadUsers
+    // =======================
+
+    @Benchmark
+    public UserService loadUsers(Workspace f) throws IOException {
+        return load(f);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UserService loadUsersShared(Workspace f) throws IOException {
+        return load(f);
+    }
+
+    // =======================
+    // saveUsers
+    // =======================
+
+    @Benchmark
+    public Path saveUsers(Workspace f) throws IOException {
+        UserJournal.writeSnapshot(f.saveFile, users);
+        return f.saveFile;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Path saveUsersShared(Workspace f) throws IOException {
+        UserJournal.writeSnapshot(f.saveFile, users);
+        return f.saveFile;
+    }
+
+    private static UserService load(Workspace f) throws IOException {
+        UserService userService = new UserService();
+        UserBulkLoader.load(f.usersFile, userService);
+        return userService;
+    }
+}
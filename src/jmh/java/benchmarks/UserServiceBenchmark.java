@@ -0,0 +1,56 @@
+package benchmarks;
+
+import models.User;
+import org.openjdk.jmh.annotations.*;
+import services.UserService;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserService.login at user-base sizes from 1k to 1M, single-threaded and with 4 threads sharing one service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class UserServiceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int userCount;
+
+    private UserService userService;
+    private String[] names;
+    private String[] passwords;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userService = new UserService();
+        userService.bulkRegister(Fixtures.accounts(userCount));
+        names = new String[userCount];
+        passwords = new String[userCount];
+        for (int i = 1; i < userCount; i++) {
+            names[i] = Fixtures.username(i);
+            passwords[i] = "pass" + i;
+        }
+    }
+
+    @Benchmark
+    public Optional<User> login() {
+        return randomLogin();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<User> loginShared() {
+        return randomLogin();
+    }
+
+    private Optional<User> randomLogin() {
+        int i = 1 + ThreadLocalRandom.current().nextInt(userCount - 1);
+        return userService.login(names[i], passwords[i]);
+    }
+}
@@ -21,4 +21,8 @@ public final class StoreExceptions {
     public static class InvalidInputException extends RuntimeException {
         public InvalidInputException(String msg) { super(msg); }
     }
+
+    public static class LedgerException extends RuntimeException { // ORDER COULD NOT BE RECORDED, NOTHING WAS SOLD
+        public LedgerException(String msg) { super(msg); }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package models;
+
+/*
+  Money helpers.
+  Amounts are plain longs holding cents (4999 = 49.99), so prices, line totals and cart totals
+  add up exactly, never box and never allocate. This class only parses, combines and prints them.
+ */
+public final class Money {
+
+    private Money() {}
+
+    // Accepts a decimal amount such as "49.99", "5", "5.5" or "-0.25". Returns it in cents.
+    // Throws NumberFormatException for anything else (including more than 2 decimals or overflow).
+    public static long parse(String text) {
+        if (text == null) throw new NumberFormatException("Amount is missing.");
+        String s = text.trim();
+        int i = 0;
+        boolean negative = false;
+        if (!s.isEmpty() && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+            negative = s.charAt(0) == '-';
+            i = 1;
+        }
+        long units = 0;
+        int digits = 0;
+        for (; i < s.length() && s.charAt(i) != '.'; i++, digits++) {
+            units = units * 10 + digit(s, i);
+            if (units < 0 || digits > 18) throw new NumberFormatException("Amount too large: '" + text + "'.");
+        }
+        long cents = 0;
+        int decimals = 0;
+        if (i < s.length()) { // at the '.'
+            for (i++; i < s.length(); i++, decimals++) {
+                if (decimals == 2) throw new NumberFormatException("At most 2 decimals allowed: '" + text + "'.");
+                cents = cents * 10 + digit(s, i);
+            }
+            if (decimals == 1) cents *= 10;
+        }
+        if (digits + decimals == 0) throw new NumberFormatException("Not an amount: '" + text + "'.");
+        try {
+            long total = Math.addExact(Math.multiplyExact(units, 100), cents);
+            return negative ? -total : total;
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount too large: '" + text + "'.");
+        }
+    }
+
+    // Accepts a unit price in cents and a quantity. Returns price * quantity, throwing ArithmeticException on overflow.
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    // Accepts an amount in cents and a builder. Appends it as "49.99" (no currency sign) without allocating. Returns the builder.
+    public static StringBuilder appendTo(StringBuilder sb, long cents) {
+        long units = cents / 100;
+        long frac = Math.abs(cents % 100);
+        if (cents < 0 && units == 0) sb.append('-');
+        sb.append(units).append('.');
+        if (frac < 10) sb.append('0');
+        return sb.append(frac);
+    }
+
+    // Accepts an amount in cents. Returns it as "49.99".
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(24), cents).toString();
+    }
+
+    private static int digit(String s, int i) {
+        char c = s.charAt(i);
+        if (c < '0' || c > '9') throw new NumberFormatException("Not an amount: '" + s + "'.");
+        return c - '0';
+    }
+}
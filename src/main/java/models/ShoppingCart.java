@@ -1,20 +1,54 @@
 package models;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.io.Serializable;
 
+/**
+ * A customer's cart as one line per game (game ID -> line with quantity and unit price).
+ * The total and item count are kept up to date on every add/remove, so total(), size() and removing
+ * a copy are O(1) no matter how many lines the cart has. Lines keep the order games were first added in.
+ * A line's unit price is the game's price when the line was created. Amounts are long cents, so totals are exact.
+ * Not thread-safe on its own: CartService locks the cart around every access.
+ */
 public class ShoppingCart implements Serializable {
 
     // ==========================
     // Fields
     // ==========================
 // [Katramados] ChatGPT assisted, holds all games currently in the cart, Finalized Nov. 30th
-    private final List<Videogame> items;
+    // ONE LINE PER GAME ID, IN THE ORDER THEY WERE FIRST ADDED
+    private final LinkedHashMap<Integer, Line> lines;
 
  // [Katramados] ChatGPT assisted, stores which Customer owns this cart, Finalized Nov. 30th
     private final Customer customer;
 
+    private int size; // SUM OF ALL QUANTITIES
+    private long total; // SUM OF unitPrice * quantity OVER ALL LINES, IN CENTS
+
+    /**
+     * One game in the cart and how many copies of it.
+     */
+    public static final class Line implements Serializable {
+        private final Videogame game;
+        private final long unitPrice; // CENTS
+        private int quantity;
+
+        Line(Videogame game) {
+            this.game = game;
+            this.unitPrice = game.getPriceCents();
+        }
+
+        public Videogame getGame() { return game; }
+
+        public long getUnitPrice() { return unitPrice; }
+
+        public int getQuantity() { return quantity; }
+
+        public long getSubtotal() { return Money.times(unitPrice, quantity); }
+    }
+
     // ==========================
     // Constructor
     // ==========================
@@ -24,32 +58,97 @@ public class ShoppingCart implements Serializable {
             throw new IllegalArgumentException("ShoppingCart must belong to a Customer.");
         }
         this.customer = customer;
-        this.items = new ArrayList<>();
+        this.lines = new LinkedHashMap<>();
+    }
+
+    // ==========================
+    // Cart operations
+    // ==========================
+
+    // Accepts a game and a positive quantity. Adds that many copies to the game's line (creating it if needed).
+    public void add(Videogame vg, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive.");
+        }
+        Line line = lines.computeIfAbsent(vg.getID(), id -> new Line(vg));
+        total = Math.addExact(total, Money.times(line.unitPrice, quantity));
+        line.quantity += quantity;
+        size += quantity;
+    }
+
+    // Accepts a game. Adds one copy.
+    public void add(Videogame vg) {
+        add(vg, 1);
+    }
+
+    // Accepts a game. Removes one copy of it, dropping the line at zero. Returns false if the game was not in the cart.
+    public boolean remove(Videogame vg) {
+        Line line = lines.get(vg.getID());
+        if (line == null) {
+            return false;
+        }
+        line.quantity--;
+        size--;
+        if (line.quantity == 0) {
+            lines.remove(vg.getID());
+        }
+        total -= line.unitPrice;
+        return true;
+    }
+
+    // Empties the cart.
+    public void clear() {
+        lines.clear();
+        size = 0;
+        total = 0;
     }
 
     // ==========================
     // Getters
     // ==========================
-// [Katramados], returns list of Videogame items currently in cart, Finalized Nov. 30th
-    public List<Videogame> getItems() {
-        return items;
+    // Returns the lines in the order their games were first added (read-only view).
+    public Collection<Line> getLines() {
+        return Collections.unmodifiableCollection(lines.values());
+    }
+
+    // Accepts game ID. Returns how many copies of it are in the cart.
+    public int quantity(int gameId) {
+        Line line = lines.get(gameId);
+        return line == null ? 0 : line.quantity;
     }
+
+    // Returns the number of copies in the cart, over all lines.
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Returns the sum of every line's unit price times quantity, in cents.
+    public long getTotal() {
+        return total;
+    }
+
 // [Katramados], returns owning Customer reference, Finalized Nov. 30th
     public Customer getCustomer() {
         return customer;
     }
-    
+
     // ==========================
-    // toString() 
+    // toString()
     // ==========================
 // [Katramados], builds a readable list of all games in the cart, returns formatted string, Finalized Nov. 30th
     @Override
     public String toString() {
-        String toString = "";
-        for (Videogame vg : items) {
-            toString = toString + "\n" + vg.toString();
+        StringBuilder sb = new StringBuilder();
+        for (Line line : lines.values()) {
+            sb.append('\n');
+            if (line.quantity > 1) sb.append(line.quantity).append(" x ");
+            sb.append(line.game);
         }
-        return toString;
+        return sb.toString();
     }
 
 }
@@ -5,11 +5,12 @@ package models;
  */
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class User implements Serializable {
 // [Katramados] ChatGPT assisted, simple auto-incrementing ID for users, Finalized Nov. 30th
 
-    private static int counter = 1;
+    private static final AtomicInteger counter = new AtomicInteger(1); // atomic so concurrent registrations never share an ID
 
     private final int id;
     private String username;
@@ -22,7 +23,7 @@ public abstract class User implements Serializable {
     }
  // [Katramados] ChatGPT assisted, constructor validates fields and sets the role, Finalized Nov. 30th
     public User(String username, String password, Role role) {
-        this.id = counter++;
+        this.id = counter.getAndIncrement();
         this.username = username;
         this.password = password;
         this.role = role;
@@ -7,17 +7,22 @@ package models;
  */
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class Videogame implements Serializable {
 // [Katramados] ChatGPT assisted, auto-increment game ID, Finalized Nov. 30th
-    private static int counter = 1;
+    private static final AtomicInteger counter = new AtomicInteger(1); // atomic so games added concurrently never share an ID
+    private static final AtomicIntegerFieldUpdater<Videogame> STOCK =
+            AtomicIntegerFieldUpdater.newUpdater(Videogame.class, "stock");
 
     private final int id;
     private String title;
     private Genre genre;
     private String description;
-    private double price;
-    private int stock;
+    private long price; // IN CENTS (see Money)
+    private volatile int stock; // updated with CAS by tryReserve/release so checkouts never oversell
+    private transient ChangeListener listener; // catalog that indexes this game, notified when indexed fields change
 
     public enum Genre {
         ACTION,
@@ -29,35 +34,91 @@ public class Videogame implements Serializable {
         MMO,
         SANDBOX
     }
+
+    /**
+     * Callback for whoever indexes this game (GameService), so its indexes stay current
+     * when a field is changed directly through a setter.
+     */
+    public interface ChangeListener {
+        void titleChanged(Videogame vg, String oldTitle);
+        void genreChanged(Videogame vg, Genre oldGenre);
+        void descriptionChanged(Videogame vg);
+        void priceChanged(Videogame vg, long oldPrice);
+        // Called on every stock change, checkout claims included, so it must be cheap and must not block.
+        void stockChanged(Videogame vg);
+    }
 // [Katramados] Constructor sets all fields (no validation here), Finalized Nov. 30th
-    public Videogame(String title, Genre genre, String description, double price, int stock) {
-        this.id = counter++;
+// Price is in cents (4999 = 49.99)
+    public Videogame(String title, Genre genre, String description, long price, int stock) {
+        this(counter.getAndIncrement(), title, genre, description, price, stock);
+    }
+// Restores a game with a known ID (catalog snapshot); later games get IDs above it
+    public Videogame(int id, String title, Genre genre, String description, long price, int stock) {
+        this.id = id;
         this.title = title;
         this.genre = genre;
         this.description = description;
         this.price = price;
         this.stock = stock;
+        if (counter.get() <= id) counter.accumulateAndGet(id + 1, Math::max);
     }
 // [Katramados] Returns unique game ID, Finalized Nov. 30th
     public int getID() { return id; }
 // [Katramados] Basic getters/setters for fields, Finalized Nov. 30th
     public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
+    public void setTitle(String title) {
+        String old = this.title;
+        this.title = title;
+        if (listener != null) listener.titleChanged(this, old);
+    }
 
     public Genre getGenre() { return genre; }
-    public void setGenre(Genre genre) { this.genre = genre; }
+    public void setGenre(Genre genre) {
+        Genre old = this.genre;
+        this.genre = genre;
+        if (listener != null) listener.genreChanged(this, old);
+    }
 
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    public void setDescription(String description) {
+        this.description = description;
+        if (listener != null) listener.descriptionChanged(this);
+    }
 
-    public double getPrice() { return price; }
-    public void setPrice(double price) { this.price = price; }
+    public long getPriceCents() { return price; }
+    public void setPriceCents(long price) {
+        long old = this.price;
+        this.price = price;
+        if (listener != null) listener.priceChanged(this, old);
+    }
 
     public int getStock() { return stock; }
-    public void setStock(int stock) { this.stock = stock; }
+    public void setStock(int stock) {
+        this.stock = stock;
+        if (listener != null) listener.stockChanged(this);
+    }
+// Atomically claims qty copies. Returns false (and claims nothing) if fewer than qty are in stock
+    public boolean tryReserve(int qty) {
+        int current;
+        do {
+            current = stock;
+            if (current < qty) return false;
+        } while (!STOCK.compareAndSet(this, current, current - qty));
+        if (listener != null) listener.stockChanged(this);
+        return true;
+    }
+// Gives back qty copies claimed by tryReserve (used to roll back a failed checkout)
+    public void release(int qty) {
+        STOCK.addAndGet(this, qty);
+        if (listener != null) listener.stockChanged(this);
+    }
+// Attaches the indexing catalog (null detaches it)
+    public void setChangeListener(ChangeListener listener) { this.listener = listener; }
+// The attached catalog, or null (for subclasses that keep the fields elsewhere and must notify it themselves)
+    protected ChangeListener getChangeListener() { return listener; }
 // [Katramados] String output for catalog listings, Finalized Nov. 30th
     @Override
     public String toString() {
-        return "'" + title + "' (ID: " + id + "). Price: " + price + " || In Stock: " + stock;
+        return "'" + getTitle() + "' (ID: " + id + "). Price: " + Money.format(getPriceCents()) + " || In Stock: " + getStock();
     }
 }
@@ -1,54 +1,182 @@
 package services;
 
 import models.*;
+import exceptions.StoreExceptions;
+import util.MetricsRegistry;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service responsible for operations on a customer's ShoppingCart.
  * Includes internal stub model classes and a driver main().
+ *
+ * Every method locks only the customer's own cart, so one CartService can serve many sessions at once.
+ * Call counts and latencies of every operation are recorded in MetricsRegistry.DEFAULT.
+ * Nothing is printed: results are returned, and what the user should see is sent to the listener as StoreEvents.
+ * With an OrderLedger attached, every checkout is on disk before it returns (see checkout()).
+ * Every checkout also feeds SalesStats, so owners can see what sells (salesReport()) without re-reading orders.
  */
 
 public class CartService {
 
+    // =======================
+    // FIELDS
+    // =======================
+    private static final MetricsRegistry.Timer ADD_CART_TIMER = MetricsRegistry.DEFAULT.timer("CartService.addCart");
+    private static final MetricsRegistry.Timer REMOVE_CART_TIMER = MetricsRegistry.DEFAULT.timer("CartService.removeCart");
+    private static final MetricsRegistry.Timer TOTAL_TIMER = MetricsRegistry.DEFAULT.timer("CartService.total");
+    private static final MetricsRegistry.Timer CHECKOUT_TIMER = MetricsRegistry.DEFAULT.timer("CartService.checkout");
+    private static final MetricsRegistry.Counter ITEMS_SOLD = MetricsRegistry.DEFAULT.counter("CartService.itemsSold");
+    private static final MetricsRegistry.Counter OUT_OF_STOCK = MetricsRegistry.DEFAULT.counter("CartService.checkout.outOfStock");
+    private static final MetricsRegistry.Timer SALES_REPORT_TIMER = MetricsRegistry.DEFAULT.timer("CartService.salesReport");
+    private volatile StoreEvent.Listener listener = StoreEvent.Listener.NONE; // WHO HEARS ABOUT CART CHANGES AND CHECKOUTS
+    private volatile OrderLedger ledger; // WHEN SET, EVERY CHECKOUT IS RECORDED IN IT
+    private final SalesStats sales = new SalesStats(); // BEST SELLERS, REVENUE PER GENRE AND SALES RATES SINCE STARTUP
+
+    /**
+     * What a successful checkout sold: the cart's lines as they were paid for, the number of copies and the total in cents.
+     * orderId is the order's number in the ledger (0 if no ledger is attached), timestamp when it was placed (epoch ms).
+     */
+    public record Receipt(long orderId, Customer customer, List<ShoppingCart.Line> lines, int items, long total, long timestamp) {}
+
     // [Skaraki] ChatGPT assisted. Accepts customer and videogame objects, adds videogame to respective customer's cart. Finalized Nov 30th.
     public void addCart(Customer customer, Videogame vg) {
-        customer.getCart().getItems().add(vg);
-        System.out.println("Added '" + vg.getTitle() + "' to " + customer.getUsername() + "'s cart.");
+        long start = ADD_CART_TIMER.start();
+        try {
+            synchronized (customer.getCart()) {
+                customer.getCart().add(vg);
+            }
+            if (listener != StoreEvent.Listener.NONE) listener.on(new StoreEvent.AddedToCart(customer, vg));
+        } finally {
+            ADD_CART_TIMER.stop(start);
+        }
     }
 
     // [Skaraki] ChatGPT assisted. Accepts customer and videogame objects, removes videogame from respective customer's cart. Finalized Nov 30th.
-    public void removeCart(Customer customer, Videogame vg) {
-        if (vg == null) {
-            System.out.println("[X] Game does not exist in cart.");
-            return;
+    // Returns false if the game was not in the cart.
+    public boolean removeCart(Customer customer, Videogame vg) {
+        long start = REMOVE_CART_TIMER.start();
+        try {
+            boolean removed = false;
+            if (vg != null) {
+                synchronized (customer.getCart()) {
+                    removed = customer.getCart().remove(vg);
+                }
+            }
+            if (!removed) listener.on(new StoreEvent.NotInCart(customer));
+            return removed;
+        } finally {
+            REMOVE_CART_TIMER.stop(start);
         }
-        boolean removed = customer.getCart().getItems().remove(vg);
     }
 
     // [Skaraki] ChatGPT assisted. Accepts customer object, returns total price of videogames in customer's cart. Finalized Nov 30th.
-    public double total(Customer customer) {
-        double sum = 0.0;
-        for (Videogame vg : customer.getCart().getItems()) {
-            sum += vg.getPrice();
+    // The total is in cents (see Money).
+    public long total(Customer customer) {
+        long start = TOTAL_TIMER.start();
+        try {
+            synchronized (customer.getCart()) {
+                return customer.getCart().getTotal();
+            }
+        } finally {
+            TOTAL_TIMER.stop(start);
         }
-        return sum;
     }
 
     // [Skaraki] ChatGPT assisted. Accepts customer object, prints out checkout and clears customer's cart after checkout. Finalized Nov 30th.
-    public void checkout(Customer customer) {
-        List<Videogame> items = customer.getCart().getItems();
-        if (items.isEmpty()) {
-            System.out.println("[X] Cart is empty.");
-            return;
+    // Claims stock for every game in the cart first (all or nothing). Throws OutOfStockException and leaves the cart untouched if any game is short.
+    // With a ledger, waits until the order is on disk (concurrent checkouts share the fsync). If it cannot be written the
+    // stock is given back, the cart is left untouched and LedgerException is thrown. Returns the receipt, or null if the cart was empty.
+    public Receipt checkout(Customer customer) {
+        long start = CHECKOUT_TIMER.start();
+        try {
+            Receipt receipt;
+            synchronized (customer.getCart()) {
+                ShoppingCart cart = customer.getCart();
+                if (cart.isEmpty()) {
+                    receipt = null;
+                } else {
+                    reserveStock(cart);
+                    List<ShoppingCart.Line> lines = List.copyOf(cart.getLines());
+                    long now = System.currentTimeMillis();
+                    long orderId = record(customer, lines, cart.getTotal(), now);
+                    receipt = new Receipt(orderId, customer, lines, cart.size(), cart.getTotal(), now);
+                    cart.clear(); // empty cart after checkout (the receipt keeps the old lines)
+                }
+            }
+            if (receipt == null) {
+                listener.on(new StoreEvent.CartEmpty(customer));
+                return null;
+            }
+            ITEMS_SOLD.add(receipt.items());
+            sales.record(receipt);
+            if (listener != StoreEvent.Listener.NONE) listener.on(new StoreEvent.CheckedOut(receipt));
+            return receipt;
+        } finally {
+            CHECKOUT_TIMER.stop(start);
+        }
+    }
+
+    // Accepts a user and how many best sellers to list (at most SalesStats.TRACKED). Returns sales since startup:
+    // best sellers, revenue per genre and the last minute/hour/day, in constant time. Throws PermissionException unless an owner asks. ADDED POST-UML
+    public SalesStats.Report salesReport(User user, int top) {
+        if (user == null || user.getRole() != User.Role.OWNER) {
+            throw new StoreExceptions.PermissionException("[X] Only owners can see the sales report.");
+        }
+        long start = SALES_REPORT_TIMER.start();
+        try {
+            return sales.report(top, System.currentTimeMillis());
+        } finally {
+            SALES_REPORT_TIMER.stop(start);
+        }
+    }
+
+    // Accepts where events should go (e.g. a ui.Renderer), or null / StoreEvent.Listener.NONE to drop them. ADDED POST-UML
+    public void setListener(StoreEvent.Listener listener) {
+        this.listener = listener == null ? StoreEvent.Listener.NONE : listener;
+    }
+
+    // Accepts the ledger every later checkout should be recorded in (null detaches it). ADDED POST-UML
+    public void setLedger(OrderLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    // HELPER (NOT IN UML). Accepts a paid-for order whose stock is claimed. Appends it to the ledger, if any, and waits
+    // until it is on disk. Returns its order ID (0 without a ledger). On failure releases the stock and throws LedgerException.
+    private long record(Customer customer, List<ShoppingCart.Line> lines, long total, long timestamp) {
+        OrderLedger ledger = this.ledger;
+        if (ledger == null) return 0;
+        try {
+            return ledger.append(customer.getUsername(), lines, total, timestamp).join();
+        } catch (CompletionException e) {
+            rollback(lines, lines.size());
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            throw new StoreExceptions.LedgerException("[X] Order could not be recorded, nothing was charged: " + cause.getMessage());
         }
+    }
+
+    // HELPER (NOT IN UML). Accepts a cart, atomically claims each line's quantity (lines taken in game ID order).
+    // Each game is claimed with a CAS on its own stock counter, so checkouts of different games never wait on each other.
+    // If any game is short, everything claimed so far is released and OutOfStockException is thrown.
+    private void reserveStock(ShoppingCart cart) {
+        List<ShoppingCart.Line> sorted = new ArrayList<>(cart.getLines());
+        sorted.sort((a, b) -> Integer.compare(a.getGame().getID(), b.getGame().getID()));
 
-        System.out.println("=== Checkout for " + customer.getUsername() + " ===");
-        for (Videogame vg : items) {
-            System.out.println("- " + vg.getTitle() + " ($" + vg.getPrice() + ")");
+        for (int i = 0; i < sorted.size(); i++) {
+            ShoppingCart.Line line = sorted.get(i);
+            if (!line.getGame().tryReserve(line.getQuantity())) {
+                rollback(sorted, i);
+                OUT_OF_STOCK.increment();
+                throw new StoreExceptions.OutOfStockException("[X] Not enough stock for '" + line.getGame().getTitle() + "'.");
+            }
         }
-        total(customer);
-        System.out.println("[OK] Payment successful. Thank you!");
+    }
 
-        items.clear(); // empty cart after checkout
+    // HELPER (NOT IN UML). Gives back the stock claimed for the first `claimed` lines.
+    private void rollback(List<ShoppingCart.Line> sorted, int claimed) {
+        for (int i = 0; i < claimed; i++) {
+            sorted.get(i).getGame().release(sorted.get(i).getQuantity());
+        }
     }
 }
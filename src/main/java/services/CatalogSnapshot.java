@@ -0,0 +1,180 @@
+package services;
+
+import models.Videogame;
+import util.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Compact binary snapshot of the videogame catalog.
+ *
+ * Layout (big-endian):
+ *   header   magic "S2KC", format version, game count, string heap size  (4 ints)
+ *   price    long[count]     in cents (format 1 stored double[count] in dollars, still readable)
+ *   id       int[count]
+ *   stock    int[count]
+ *   title    int[count + 1]  offsets into the string heap (title i = heap[title[i] .. title[i+1]))
+ *   desc     int[count + 1]  offsets into the string heap
+ *   genre    byte[count]     ordinal, -1 for none
+ *   heap     UTF-8 bytes of every title, followed by every description
+ *
+ * Fixed-width columns are read with bulk gets from a FileChannel.map() view, so loading is a few memcpy's
+ * plus one String per title/description. Writes go to a temp file that is fsynced and atomically moved into place.
+ * Loading checks every offset and genre ordinal against the file, so a damaged snapshot is an IOException.
+ */
+public final class CatalogSnapshot {
+
+    // =======================
+    // FIELDS
+    // =======================
+    private static final int MAGIC = 0x53324B43; // "S2KC"
+    private static final int FORMAT = 2;
+    private static final int FORMAT_DOUBLE_PRICES = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private CatalogSnapshot() {}
+
+    // =======================
+    // WRITE
+    // =======================
+
+    // Accepts snapshot path and the games to store. Writes the snapshot atomically (temp file + move).
+    public static void write(Path file, List<Videogame> games) throws IOException {
+        int n = games.size();
+        byte[][] titles = new byte[n][];
+        byte[][] descs = new byte[n][];
+        long titleBytes = 0;
+        long heap = 0;
+        for (int i = 0; i < n; i++) {
+            Videogame vg = games.get(i);
+            titles[i] = bytes(vg.getTitle());
+            descs[i] = bytes(vg.getDescription());
+            titleBytes += titles[i].length;
+            heap += titles[i].length + descs[i].length;
+        }
+        long size = HEADER_BYTES + n * (8L + 4 + 4 + 1) + 2L * 4 * (n + 1) + heap;
+        if (heap > Integer.MAX_VALUE || size > Integer.MAX_VALUE) {
+            throw new IOException("Catalog too large for one snapshot file (" + size + " bytes).");
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(FORMAT).putInt(n).putInt((int) heap);
+            for (Videogame vg : games) out.putLong(vg.getPriceCents());
+            for (Videogame vg : games) out.putInt(vg.getID());
+            for (Videogame vg : games) out.putInt(vg.getStock());
+            putOffsets(out, titles, 0);
+            putOffsets(out, descs, (int) titleBytes);
+            for (Videogame vg : games) out.put(vg.getGenre() == null ? -1 : (byte) vg.getGenre().ordinal());
+            for (byte[] t : titles) out.put(t);
+            for (byte[] d : descs) out.put(d);
+            out.force();
+        }
+        AtomicFiles.replace(tmp, file);
+    }
+
+    // =======================
+    // LOAD
+    // =======================
+
+    // Accepts snapshot path. Returns the stored games in file order. Throws IOException if the file is not a valid snapshot.
+    public static List<Videogame> load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES) throw new IOException("Catalog snapshot is truncated.");
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("Catalog snapshot is too large.");
+            MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (in.getInt() != MAGIC) throw new IOException("Not a catalog snapshot.");
+            int format = in.getInt();
+            if (format != FORMAT && format != FORMAT_DOUBLE_PRICES) {
+                throw new IOException("Unsupported catalog snapshot format " + format + ".");
+            }
+            int n = in.getInt();
+            int heapSize = in.getInt();
+            long expected = HEADER_BYTES + n * (8L + 4 + 4 + 1) + 2L * 4 * (n + 1) + heapSize;
+            if (n < 0 || heapSize < 0 || ch.size() != expected) throw new IOException("Catalog snapshot is truncated.");
+
+            long[] price = new long[n];
+            int[] id = new int[n];
+            int[] stock = new int[n];
+            int[] titleOff = new int[n + 1];
+            int[] descOff = new int[n + 1];
+            byte[] genre = new byte[n];
+            byte[] heap = new byte[heapSize];
+
+            if (format == FORMAT) {
+                in.asLongBuffer().get(price);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    price[i] = Math.round(in.getDouble(in.position() + i * 8) * 100);
+                }
+            }
+            in.position(in.position() + n * 8);
+            ints(in, id);
+            ints(in, stock);
+            ints(in, titleOff);
+            ints(in, descOff);
+            in.get(genre);
+            in.get(heap);
+
+            Videogame.Genre[] genres = Videogame.Genre.values();
+            checkOffsets(titleOff, heapSize);
+            checkOffsets(descOff, heapSize);
+            for (byte g : genre) {
+                if (g < -1 || g >= genres.length) throw new IOException("Catalog snapshot has an unknown genre (" + g + ").");
+            }
+
+            // decoding the strings is the expensive part, so rows are rebuilt in parallel
+            Videogame[] games = new Videogame[n];
+            IntStream.range(0, n).parallel().forEach(i -> {
+                String title = new String(heap, titleOff[i], titleOff[i + 1] - titleOff[i], StandardCharsets.UTF_8);
+                String desc = new String(heap, descOff[i], descOff[i + 1] - descOff[i], StandardCharsets.UTF_8);
+                games[i] = new Videogame(id[i], title, genre[i] < 0 ? null : genres[genre[i]], desc, price[i], stock[i]);
+            });
+            return Arrays.asList(games);
+        }
+    }
+
+    // =======================
+    // HELPERS
+    // =======================
+
+    private static byte[] bytes(String s) {
+        return s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Writes count + 1 absolute heap offsets for strings stored back to back starting at base.
+    private static void putOffsets(ByteBuffer out, byte[][] strings, int base) {
+        int pos = base;
+        out.putInt(pos);
+        for (int i = 0; i < strings.length; i++) {
+            pos += strings[i].length;
+            out.putInt(pos);
+        }
+    }
+
+    // Offsets must run from inside the heap to inside the heap without going backwards, or a string would read past it.
+    private static void checkOffsets(int[] offsets, int heapSize) throws IOException {
+        for (int i = 0; i < offsets.length; i++) {
+            int end = i + 1 < offsets.length ? offsets[i + 1] : heapSize;
+            if (offsets[i] < 0 || offsets[i] > end || end > heapSize) {
+                throw new IOException("Catalog snapshot has a string outside its heap.");
+            }
+        }
+    }
+
+    private static void ints(ByteBuffer in, int[] dst) {
+        in.asIntBuffer().get(dst);
+        in.position(in.position() + dst.length * 4);
+    }
+}
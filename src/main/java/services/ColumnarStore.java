@@ -0,0 +1,342 @@
+package services;
+
+import models.Videogame;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Off-heap, column-oriented storage for the catalog (GameService.Storage.COLUMNAR).
+ *
+ * Games are stored in chunks of CHUNK slots. Each chunk is one direct ByteBuffer holding its columns back to back
+ * (struct of arrays): price long[CHUNK], (ID << 32 | stock) long[CHUNK] and genre ordinal byte[CHUNK] (-1 for none).
+ * Titles and descriptions stay on the Java heap, in String arrays beside the buffer. A scan over price, stock or genre
+ * therefore reads contiguous primitive memory without touching a Videogame, and the garbage collector never has
+ * to trace the columns.
+ *
+ * Callers still get Videogames: every stored game is a View whose getters and setters go to its slot.
+ * remove() zeroes the slot's ID (scans skip it), drops its title, description and View references and puts the slot
+ * on a free list that add() takes from first, so a catalog with churn does not keep growing. The removed game's View
+ * (a cart may still hold it) is detached first: it gets a heap copy of its fields and works on that from then on.
+ * ID and stock share one long, read and CAS'd through a VarHandle, so a checkout on a View is as atomic as on a heap
+ * game, and a CAS from a View whose slot was freed (or already reused) fails on the ID instead of touching it.
+ * Its other setters synchronize with remove() on the View, and its getters re-check the ID after reading.
+ *
+ * add() and remove() run under GameService's write lock. Scans run under its read lock or as optimistic reads.
+ */
+final class ColumnarStore {
+
+    // =======================
+    // FIELDS
+    // =======================
+    static final int CHUNK_BITS = 16;
+    static final int CHUNK = 1 << CHUNK_BITS; // SLOTS PER CHUNK
+    private static final int PRICE = 0;       // BYTE OFFSETS OF THE COLUMNS INSIDE A CHUNK (WIDEST FIRST, ALL ALIGNED)
+    private static final int ID_STOCK = PRICE + 8 * CHUNK;
+    private static final int GENRE = ID_STOCK + 8 * CHUNK;
+    private static final int CHUNK_BYTES = GENRE + CHUNK;
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final Videogame.Genre[] GENRES = Videogame.Genre.values();
+
+    private Chunk[] chunks = new Chunk[0]; // REPLACED (NEVER MUTATED) WHEN A CHUNK IS ADDED
+    private int slots; // SLOTS EVER FILLED (THE FREE ONES INCLUDED), THE NEXT NEW SLOT IS slots
+    private int live;
+    private int[] free = new int[16]; // STACK OF FREED SLOTS (CHUNK << CHUNK_BITS | SLOT), REUSED BY add() FIRST
+    private int freeCount;
+
+    /**
+     * CHUNK slots of columns. Only the first {@code used} are filled (or free again, with ID 0).
+     */
+    static final class Chunk {
+        private final ByteBuffer data = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.nativeOrder());
+        private final String[] titles = new String[CHUNK];
+        private final String[] descriptions = new String[CHUNK];
+        private final View[] views = new View[CHUNK]; // SO A SCAN HIT IS A GAME WITHOUT AN ID LOOKUP
+        private int used;
+
+        int used() { return used; }
+
+        // ID of the game in slot i, 0 if the slot is free.
+        int id(int i) { return (int) (data.getLong(ID_STOCK + 8 * i) >>> 32); }
+
+        long price(int i) { return data.getLong(PRICE + 8 * i); }
+
+        // Plain read of the stock column for scans, which tolerate a value a moment old.
+        int stockPlain(int i) { return (int) data.getLong(ID_STOCK + 8 * i); }
+
+        private long idStock(int i) { return (long) LONG.getVolatile(data, ID_STOCK + 8 * i); }
+
+        private boolean casIdStock(int i, long expected, long next) {
+            return LONG.compareAndSet(data, ID_STOCK + 8 * i, expected, next);
+        }
+
+        // Genre ordinal of slot i, -1 for none.
+        int genre(int i) { return data.get(GENRE + i); }
+    }
+
+    // =======================
+    // STORAGE
+    // =======================
+
+    // Accepts a game. Copies its fields into a freed slot, or else the next new one. Returns the View that now stands for it.
+    View add(Videogame vg) {
+        int at = freeCount > 0 ? free[--freeCount] : slots++;
+        int c = at >>> CHUNK_BITS;
+        int i = at & (CHUNK - 1);
+        if (c == chunks.length) {
+            Chunk[] grown = Arrays.copyOf(chunks, c + 1);
+            grown[c] = new Chunk();
+            chunks = grown;
+        }
+        Chunk chunk = chunks[c];
+        chunk.data.putLong(PRICE + 8 * i, vg.getPriceCents());
+        chunk.data.put(GENRE + i, vg.getGenre() == null ? -1 : (byte) vg.getGenre().ordinal());
+        chunk.titles[i] = vg.getTitle();
+        chunk.descriptions[i] = vg.getDescription();
+        View view = new View(vg.getID(), chunk, i);
+        chunk.views[i] = view;
+        LONG.setVolatile(chunk.data, ID_STOCK + 8 * i, idStock(vg.getID(), vg.getStock())); // last: publishes the slot
+        if (i >= chunk.used) chunk.used = i + 1;
+        live++;
+        return view;
+    }
+
+    // Accepts a View from this store. Takes its game out of scans and frees its slot; the View itself keeps working
+    // on a heap copy of the game.
+    void remove(View view) {
+        Chunk chunk = view.chunk;
+        int i = view.slot;
+        synchronized (view) {
+            if (view.detached != null) return;
+            // taking ID and stock in one swap makes every later CAS through the slot fail, so no claim is lost
+            long was = (long) LONG.getAndSet(chunk.data, ID_STOCK + 8 * i, 0L);
+            view.detached = new Videogame(view.getID(), chunk.titles[i], view.genreAt(), chunk.descriptions[i],
+                    chunk.price(i), (int) was);
+        }
+        chunk.titles[i] = null;
+        chunk.descriptions[i] = null;
+        chunk.views[i] = null;
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = indexOf(chunk) << CHUNK_BITS | i;
+        live--;
+    }
+
+    int size() { return live; }
+
+    // Returns the number of slots ever filled, free ones included.
+    int capacity() { return slots; }
+
+    private int indexOf(Chunk chunk) {
+        for (int c = chunks.length - 1; c >= 0; c--) {
+            if (chunks[c] == chunk) return c;
+        }
+        throw new IllegalArgumentException("View of another store.");
+    }
+
+    private static long idStock(int id, int stock) {
+        return (long) id << 32 | (stock & 0xffffffffL);
+    }
+
+    // Returns the chunks, every one but the last full (free slots included, with ID 0). Caller holds a read lock or validates an optimistic read.
+    Chunk[] chunks() { return chunks; }
+
+    // =======================
+    // SCANS
+    // =======================
+
+    // Accepts a genre (null = any) and an inclusive price band in cents. Returns the games that match, in ID order.
+    // Slots are in the order games were added, which is ID order unless a slot was reused or an older game re-added:
+    // only then is it sorted.
+    List<Videogame> select(Videogame.Genre genre, long minPrice, long maxPrice) {
+        List<Videogame> found = new ArrayList<>();
+        int g = genre == null ? Integer.MIN_VALUE : genre.ordinal();
+        int lastId = 0;
+        boolean sorted = true;
+        for (Chunk c : chunks) {
+            for (int i = 0, n = c.used; i < n; i++) {
+                if (g != Integer.MIN_VALUE && c.genre(i) != g) continue;
+                long price = c.price(i);
+                if (price < minPrice || price > maxPrice) continue;
+                int id = c.id(i);
+                if (id == 0) continue;
+                found.add(c.views[i]);
+                if (id < lastId) sorted = false;
+                lastId = id;
+            }
+        }
+        if (!sorted) found.sort(Comparator.comparingInt(Videogame::getID));
+        return found;
+    }
+
+    // =======================
+    // VIEW
+    // =======================
+
+    /**
+     * A Videogame whose fields live in one slot of a ColumnarStore. The inherited fields stay empty.
+     * Setters notify the catalog's ChangeListener exactly like a heap game's do.
+     * Once removed, it is detached: every call goes to a heap copy, since the slot may already hold another game.
+     */
+    static final class View extends Videogame {
+        private final transient Chunk chunk;
+        private final int slot;
+        private final long mine; // (ID << 32) WITH STOCK 0, THE ID HALF OF ITS SLOT WHILE IT OWNS IT
+        private volatile Videogame detached; // SET (UNDER THE VIEW'S MONITOR) WHEN ITS GAME IS REMOVED
+
+        private View(int id, Chunk chunk, int slot) {
+            super(id, null, null, null, 0, 0);
+            this.chunk = chunk;
+            this.slot = slot;
+            this.mine = idStock(id, 0);
+        }
+
+        // Whether the slot still holds this game. Called after reading a column, so the value read was this game's.
+        private boolean owns() {
+            VarHandle.loadLoadFence();
+            return (chunk.idStock(slot) & 0xffffffff00000000L) == mine;
+        }
+
+        // The heap copy, waiting out the moment between remove() zeroing the slot and publishing the copy.
+        private Videogame detachedCopy() {
+            Videogame d;
+            while ((d = detached) == null) Thread.onSpinWait();
+            return d;
+        }
+
+        private Genre genreAt() {
+            int g = chunk.genre(slot);
+            return g < 0 ? null : GENRES[g];
+        }
+
+        @Override
+        public String getTitle() {
+            String title = chunk.titles[slot];
+            return owns() ? title : detachedCopy().getTitle();
+        }
+
+        @Override
+        public void setTitle(String title) {
+            String old;
+            synchronized (this) {
+                old = getTitle();
+                if (detached != null) detached.setTitle(title);
+                else chunk.titles[slot] = title;
+            }
+            ChangeListener l = getChangeListener();
+            if (l != null) l.titleChanged(this, old);
+        }
+
+        @Override
+        public Genre getGenre() {
+            Genre genre = genreAt();
+            return owns() ? genre : detachedCopy().getGenre();
+        }
+
+        @Override
+        public void setGenre(Genre genre) {
+            Genre old;
+            synchronized (this) {
+                old = getGenre();
+                if (detached != null) detached.setGenre(genre);
+                else chunk.data.put(GENRE + slot, genre == null ? -1 : (byte) genre.ordinal());
+            }
+            ChangeListener l = getChangeListener();
+            if (l != null) l.genreChanged(this, old);
+        }
+
+        @Override
+        public String getDescription() {
+            String description = chunk.descriptions[slot];
+            return owns() ? description : detachedCopy().getDescription();
+        }
+
+        @Override
+        public void setDescription(String description) {
+            synchronized (this) {
+                if (detached != null) detached.setDescription(description);
+                else chunk.descriptions[slot] = description;
+            }
+            ChangeListener l = getChangeListener();
+            if (l != null) l.descriptionChanged(this);
+        }
+
+        @Override
+        public long getPriceCents() {
+            long price = chunk.price(slot);
+            return owns() ? price : detachedCopy().getPriceCents();
+        }
+
+        @Override
+        public void setPriceCents(long price) {
+            long old;
+            synchronized (this) {
+                old = getPriceCents();
+                if (detached != null) detached.setPriceCents(price);
+                else chunk.data.putLong(PRICE + 8 * slot, price);
+            }
+            ChangeListener l = getChangeListener();
+            if (l != null) l.priceChanged(this, old);
+        }
+
+        @Override
+        public int getStock() {
+            long word = chunk.idStock(slot);
+            return (word & 0xffffffff00000000L) == mine ? (int) word : detachedCopy().getStock();
+        }
+
+        @Override
+        public void setStock(int stock) {
+            long word;
+            do {
+                word = chunk.idStock(slot);
+                if ((word & 0xffffffff00000000L) != mine) {
+                    detachedCopy().setStock(stock);
+                    break;
+                }
+            } while (!chunk.casIdStock(slot, word, idStock(getID(), stock)));
+            ChangeListener l = getChangeListener();
+            if (l != null) l.stockChanged(this);
+        }
+
+        @Override
+        public boolean tryReserve(int qty) {
+            long word;
+            do {
+                word = chunk.idStock(slot);
+                if ((word & 0xffffffff00000000L) != mine) {
+                    if (!detachedCopy().tryReserve(qty)) return false;
+                    break;
+                }
+                if ((int) word < qty) return false;
+            } while (!chunk.casIdStock(slot, word, idStock(getID(), (int) word - qty)));
+            ChangeListener l = getChangeListener();
+            if (l != null) l.stockChanged(this);
+            return true;
+        }
+
+        @Override
+        public void release(int qty) {
+            long word;
+            do {
+                word = chunk.idStock(slot);
+                if ((word & 0xffffffff00000000L) != mine) {
+                    detachedCopy().release(qty);
+                    break;
+                }
+            } while (!chunk.casIdStock(slot, word, idStock(getID(), (int) word + qty)));
+            ChangeListener l = getChangeListener();
+            if (l != null) l.stockChanged(this);
+        }
+
+        // Serialized as a plain heap copy: the buffer it points into cannot travel.
+        private Object writeReplace() {
+            return new Videogame(getID(), getTitle(), getGenre(), getDescription(), getPriceCents(), getStock());
+        }
+    }
+}
@@ -1,116 +1,540 @@
 package services;
 
 import models.*;
+import exceptions.StoreExceptions;
+import util.IntHashMap;
+import util.MetricsRegistry;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Set;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Service responsible for managing the list of videogames.
  * This version includes internal stub model classes and a driver main()
  * so it can be run on its own.
+ *
+ * Safe to share between concurrent sessions: writes are serialized by a StampedLock,
+ * lookups run as optimistic reads (retried under the read lock only if a write raced them),
+ * and listAll() hands out an immutable snapshot that is rebuilt at most once per catalog change.
+ * Price and stock have sorted indexes too, so range queries, cheapest-first browsing and the low stock
+ * report cost O(log n + k) instead of a scan.
+ *
+ * With Storage.COLUMNAR the games' fields move into off-heap columns (see ColumnarStore) and the catalog lists
+ * views onto them, so scans over price and genre read contiguous memory instead of one object per game.
  */
 public class GameService {
 
     // =======================
     // FIELDS
     // =======================
-    private final List<Videogame> games = new ArrayList<>();
+    private static final MetricsRegistry.Timer ADD_GAME_TIMER = MetricsRegistry.DEFAULT.timer("GameService.addGame");
+    private static final MetricsRegistry.Timer REMOVE_GAME_TIMER = MetricsRegistry.DEFAULT.timer("GameService.removeGame");
+    private static final MetricsRegistry.Timer UPDATE_PRICE_TIMER = MetricsRegistry.DEFAULT.timer("GameService.updatePrice");
+    private static final MetricsRegistry.Timer UPDATE_STOCK_TIMER = MetricsRegistry.DEFAULT.timer("GameService.updateStock");
+    private static final MetricsRegistry.Timer LOAD_CATALOG_TIMER = MetricsRegistry.DEFAULT.timer("GameService.loadCatalog");
+    private static final MetricsRegistry.Timer FIND_BY_ID_TIMER = MetricsRegistry.DEFAULT.timer("GameService.findByID");
+    private static final MetricsRegistry.Timer FIND_BY_TITLE_TIMER = MetricsRegistry.DEFAULT.timer("GameService.findByTitle");
+    private static final MetricsRegistry.Timer FIND_FUZZY_TIMER = MetricsRegistry.DEFAULT.timer("GameService.findByTitleFuzzy");
+    private static final MetricsRegistry.Timer SEARCH_TEXT_TIMER = MetricsRegistry.DEFAULT.timer("GameService.searchText");
+    private static final MetricsRegistry.Timer FIND_BY_GENRE_TIMER = MetricsRegistry.DEFAULT.timer("GameService.findByGenre");
+    private static final MetricsRegistry.Timer SEARCH_TIMER = MetricsRegistry.DEFAULT.timer("GameService.search");
+    private static final MetricsRegistry.Timer LIST_ALL_TIMER = MetricsRegistry.DEFAULT.timer("GameService.listAll");
+    private static final MetricsRegistry.Timer LIST_PAGE_TIMER = MetricsRegistry.DEFAULT.timer("GameService.listPage");
+    private static final MetricsRegistry.Timer FIND_BY_PRICE_TIMER = MetricsRegistry.DEFAULT.timer("GameService.findByPriceRange");
+    private static final MetricsRegistry.Timer FIND_BY_STOCK_TIMER = MetricsRegistry.DEFAULT.timer("GameService.findByStockRange");
+    private static final MetricsRegistry.Timer LIST_BY_PRICE_TIMER = MetricsRegistry.DEFAULT.timer("GameService.listByPrice");
+    private static final MetricsRegistry.Timer INVENTORY_TIMER = MetricsRegistry.DEFAULT.timer("GameService.inventoryReport");
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_CHUNK = 256; // GAMES FETCHED PER LOCK ROUND BY stream()
+    private final StampedLock lock = new StampedLock(); // GUARDS THE INDEXES BELOW
+    private final Storage storage;
+    private ColumnarStore columns; // WHERE LISTED GAMES KEEP THEIR FIELDS IN COLUMNAR STORAGE (NULL FOR HEAP, REPLACED BY loadCatalog)
+    private final IntHashMap<Videogame> byId = new IntHashMap<>(); // ID INDEX, KEPT IN SYNC BY addGame/removeGame
+    private TitleIndex titles = new TitleIndex(); // TRIGRAM + WORD INDEX FOR findByTitle/findByTitleFuzzy (REPLACED WHEN A BACKGROUND REBUILD FINISHES)
+    private TextIndex text = new TextIndex(); // BM25 INDEX OVER TITLES + DESCRIPTIONS FOR searchText (REBUILT WITH titles)
+    private BitSet staleTitles = null; // WHILE A REBUILD RUNS: IDs ADDED/REMOVED/RENAMED/REDESCRIBED SINCE IT STARTED, ELSE NULL
+    private volatile int titleGeneration; // IDENTIFIES THE LATEST REBUILD, OLDER ONES ARE DISCARDED
+    private final ThreadPoolExecutor rebuilder = newRebuilder(); // RUNS THE TITLE REBUILDS ONE AT A TIME, ITS THREAD EXITS WHEN IDLE
+    private final EnumMap<Videogame.Genre, BitSet> byGenre = new EnumMap<>(Videogame.Genre.class); // GENRE -> BITSET OF IDs
+    private final BitSet listed = new BitSet(); // EVERY LISTED ID, WALKED IN ORDER BY listPage()/stream()
+    private final RangeIndex prices = new RangeIndex(); // (PRICE IN CENTS, ID), UPDATED ON EVERY PRICE CHANGE
+    private final RangeIndex stocks = new RangeIndex(); // (STOCK, ID), BROUGHT UP TO DATE LAZILY, SEE reconcileStock()
+    private final Set<Videogame> stockDirty = ConcurrentHashMap.newKeySet(); // GAMES WHOSE STOCK MOVED SINCE stocks WAS LAST FIXED
+    private volatile long version; // BUMPED ON EVERY ADD/REMOVE
+    private volatile Snapshot snapshot = new Snapshot(-1, List.of());
+    private volatile StoreEvent.Listener listener = StoreEvent.Listener.NONE; // WHO HEARS ABOUT ADDS/REMOVES/UPDATES (THE UI'S RENDERER)
+    private final Videogame.ChangeListener reindexer = new Videogame.ChangeListener() {
+        @Override
+        public void titleChanged(Videogame vg, String oldTitle) {
+            long stamp = lock.writeLock();
+            try {
+                if (staleTitles != null) {
+                    staleTitles.set(vg.getID());
+                } else {
+                    titles.rename(vg.getID(), vg.getTitle());
+                    text.put(vg.getID(), vg.getTitle(), vg.getDescription());
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public void descriptionChanged(Videogame vg) {
+            long stamp = lock.writeLock();
+            try {
+                if (staleTitles != null) staleTitles.set(vg.getID());
+                else text.put(vg.getID(), vg.getTitle(), vg.getDescription());
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public void genreChanged(Videogame vg, Videogame.Genre oldGenre) {
+            long stamp = lock.writeLock();
+            try {
+                if (oldGenre != null) byGenre.get(oldGenre).clear(vg.getID());
+                if (vg.getGenre() != null) byGenre.get(vg.getGenre()).set(vg.getID());
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public void priceChanged(Videogame vg, long oldPrice) {
+            long stamp = lock.writeLock();
+            try {
+                if (byId.get(vg.getID()) == vg) prices.put(vg, vg.getPriceCents());
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public void stockChanged(Videogame vg) {
+            // Runs inside every checkout, so no lock here: just remember the game (contains() first keeps repeat marks lock-free).
+            if (!stockDirty.contains(vg)) stockDirty.add(vg);
+        }
+    };
 
     // =======================
     // CONSTRUCTOR WITH TEMPLATE GAMES (FOR TESTING AND PROOF OF FUNCTION)
     // =======================
 
     public GameService() {
-        games.add(new Videogame("Star Quest", Videogame.Genre.ACTION, "Space RPG adventure", 49.99, 10));
-        games.add(new Videogame("Farm Days", Videogame.Genre.SIMULATION, "Farming game", 19.99, 5));
-        games.add(new Videogame("Puzzle Master", Videogame.Genre.PUZZLE, "Puzzle challenges", 9.99, 20));
+        this(Storage.HEAP);
+    }
+
+    // Accepts where listed games keep their fields (see Storage). ADDED POST-UML
+    public GameService(Storage storage) {
+        this.storage = storage;
+        this.columns = storage == Storage.COLUMNAR ? new ColumnarStore() : null;
+        for (Videogame.Genre g : Videogame.Genre.values()) {
+            byGenre.put(g, new BitSet());
+        }
+        index(new Videogame("Star Quest", Videogame.Genre.ACTION, "Space RPG adventure", 4999, 10));
+        index(new Videogame("Farm Days", Videogame.Genre.SIMULATION, "Farming game", 1999, 5));
+        index(new Videogame("Puzzle Master", Videogame.Genre.PUZZLE, "Puzzle challenges", 999, 20));
     }
 
     // =======================
     // SERVICE METHODS
     // =======================
 
-    public void addGame(User user, Videogame vg) {
-        games.add(vg);
-        System.out.println("Game added: " + vg.getTitle());
+    // Returns false (nothing changed) if a game with the same ID is already listed.
+    // In COLUMNAR storage the catalog lists a view of vg (its fields are copied into the columns), not vg itself:
+    // look the game up again (findByID) before changing it.
+    public boolean addGame(User user, Videogame vg) {
+        long start = ADD_GAME_TIMER.start();
+        try {
+            boolean added;
+            long stamp = lock.writeLock();
+            try {
+                added = index(vg);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            if (listener != StoreEvent.Listener.NONE) {
+                listener.on(added ? new StoreEvent.GameAdded(vg) : new StoreEvent.DuplicateGame(vg));
+            }
+            return added;
+        } finally {
+            ADD_GAME_TIMER.stop(start);
+        }
     }
 
-    public void removeGame(User user, Videogame vg) {
-        if (games.remove(vg)) {
-            System.out.println("[OK] Game removed: " + vg.getTitle());
-        } else {
-            System.out.println("[X] Game not found in list.");
+    // Returns false if that game object is not the one listed under its ID.
+    public boolean removeGame(User user, Videogame vg) {
+        long start = REMOVE_GAME_TIMER.start();
+        try {
+            boolean removed = false;
+            long stamp = lock.writeLock();
+            try {
+                if (byId.get(vg.getID()) == vg) {
+                    byId.remove(vg.getID());
+                    listed.clear(vg.getID());
+                    if (staleTitles != null) {
+                        staleTitles.set(vg.getID());
+                    } else {
+                        titles.remove(vg.getID());
+                        text.remove(vg.getID());
+                    }
+                    if (vg.getGenre() != null) byGenre.get(vg.getGenre()).clear(vg.getID());
+                    prices.remove(vg.getID());
+                    stocks.remove(vg.getID());
+                    stockDirty.remove(vg);
+                    if (columns != null) columns.remove((ColumnarStore.View) vg);
+                    vg.setChangeListener(null);
+                    version++;
+                    removed = true;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            if (listener != StoreEvent.Listener.NONE) {
+                listener.on(removed ? new StoreEvent.GameRemoved(vg) : new StoreEvent.GameNotListed(vg));
+            }
+            return removed;
+        } finally {
+            REMOVE_GAME_TIMER.stop(start);
         }
     }
 
-    public void updatePrice(User user, int gameID, double newPrice) {
-        Videogame game = findByID(gameID);
-        if (game == null) {
-            System.out.println("[X] Game not found (ID = " + gameID + ")");
-            return;
+    // Accepts the new price in cents (see Money). Returns false if no game has that ID.
+    // The setter is called without the lock held: the game's change listener takes the write lock itself to move it in the price index.
+    public boolean updatePrice(User user, int gameID, long newPrice) {
+        long start = UPDATE_PRICE_TIMER.start();
+        try {
+            Videogame game = findByID(gameID);
+            if (game == null) {
+                emit(new StoreEvent.GameNotFound(gameID));
+                return false;
+            }
+            game.setPriceCents(newPrice);
+            if (listener != StoreEvent.Listener.NONE) listener.on(new StoreEvent.PriceUpdated(game, newPrice));
+            return true;
+        } finally {
+            UPDATE_PRICE_TIMER.stop(start);
         }
-        game.setPrice(newPrice);
-        System.out.println("[OK] Price updated for '" + game.getTitle() + "' -> " + newPrice);
     }
 
-    public void updateStock(User user, int gameID, int newStock) {
-        if (isOwner(user)) {
-            System.out.println("[X] Only owners can update stock.");
-            return;
+    // Returns false if the user is not an owner or no game has that ID.
+    public boolean updateStock(User user, int gameID, int newStock) {
+        long start = UPDATE_STOCK_TIMER.start();
+        try {
+            if (isOwner(user)) {
+                emit(new StoreEvent.OwnerOnly("update stock"));
+                return false;
+            }
+            Videogame game = findByID(gameID);
+            if (game == null) {
+                emit(new StoreEvent.GameNotFound(gameID));
+                return false;
+            }
+            long stamp = lock.writeLock();
+            try {
+                game.setStock(newStock);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            if (listener != StoreEvent.Listener.NONE) listener.on(new StoreEvent.StockUpdated(game, newStock));
+            return true;
+        } finally {
+            UPDATE_STOCK_TIMER.stop(start);
         }
-        Videogame game = findByID(gameID);
-        if (game == null) {
-            System.out.println("[X] Game not found (ID = " + gameID + ")");
-            return;
+    }
+
+    // Accepts games restored from a catalog snapshot. Replaces the whole catalog (template games included) in one write. ADDED POST-UML
+    // The ID and genre indexes are rebuilt right away. The trigram index is rebuilt on the service's background thread, so boot
+    // does not wait for it; until it is swapped in, title searches fall back to scanning the titles. Back-to-back loads queue
+    // behind the running rebuild, and a rebuild that a newer load superseded stops early.
+    public void loadCatalog(List<Videogame> loaded) {
+        long start = LOAD_CATALOG_TIMER.start();
+        try {
+            int generation;
+            long stamp = lock.writeLock();
+            try {
+                for (Videogame vg : byId.values()) {
+                    vg.setChangeListener(null);
+                }
+                byId.clear();
+                listed.clear();
+                titles = new TitleIndex();
+                text = new TextIndex();
+                staleTitles = new BitSet();
+                generation = ++titleGeneration;
+                for (BitSet ids : byGenre.values()) {
+                    ids.clear();
+                }
+                prices.clear();
+                stocks.clear();
+                stockDirty.clear();
+                if (columns != null) columns = new ColumnarStore(); // views handed out earlier keep their old columns
+                byId.ensureCapacity(loaded.size());
+                for (Videogame vg : loaded) {
+                    index(vg);
+                }
+                staleTitles.clear(); // everything loaded here is in the snapshot the rebuild starts from
+                version++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            rebuilder.execute(() -> rebuildTitles(generation));
+        } finally {
+            LOAD_CATALOG_TIMER.stop(start);
         }
-        game.setStock(newStock);
-        System.out.println("[OK] Stock updated for '" + game.getTitle() + "' -> " + newStock);
     }
 
-    // [Skaraki] ChatGPT assisted. Accepts int id. Returns either the videogame associated with the id or null. Finalized Nov. 30th.
+    // HELPER (NOT IN UML). Builds fresh title and full-text indexes from the current snapshot without holding the lock,
+    // then, under the write lock, re-indexes the games that changed meanwhile and swaps them in.
+    private void rebuildTitles(int generation) {
+        if (generation != titleGeneration) return; // superseded while it waited in the queue
+        TitleIndex fresh = new TitleIndex();
+        TextIndex freshText = new TextIndex();
+        int n = 0;
+        for (Videogame vg : listAll()) {
+            if ((++n & 4095) == 0 && generation != titleGeneration) return; // superseded midway, the newer one is queued
+            fresh.add(vg.getID(), vg.getTitle());
+            freshText.put(vg.getID(), vg.getTitle(), vg.getDescription());
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (generation != titleGeneration) return; // a newer loadCatalog started its own rebuild
+            for (int id = staleTitles.nextSetBit(0); id >= 0; id = staleTitles.nextSetBit(id + 1)) {
+                fresh.remove(id);
+                freshText.remove(id);
+                Videogame vg = byId.get(id);
+                if (vg != null) {
+                    fresh.add(id, vg.getTitle());
+                    freshText.put(id, vg.getTitle(), vg.getDescription());
+                }
+            }
+            titles = fresh;
+            text = freshText;
+            staleTitles = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
 
+    // HELPER (NOT IN UML). A single daemon thread for rebuildTitles, so at most one rebuild runs per service.
+    private static ThreadPoolExecutor newRebuilder() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "title-index-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // [Skaraki] ChatGPT assisted. Accepts int id. Returns either the videogame associated with the id or null. Finalized Nov. 30th.
+    // Constant-time lookup through the ID index, as an optimistic read (no lock taken, nothing allocated unless a write raced it).
     public Videogame findByID(int vgID) {
-        for (Videogame vg : games) {
-            if (vg.getID() == vgID) return vg;
+        long start = FIND_BY_ID_TIMER.start();
+        try {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                Videogame vg = byId.get(vgID);
+                if (lock.validate(stamp)) return vg;
+            }
+            stamp = lock.readLock();
+            try {
+                return byId.get(vgID);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        } finally {
+            FIND_BY_ID_TIMER.stop(start);
         }
-        return null;
     }
 
     // [Skaraki] ChatGPT assisted. Accepts title string, returns videogames with string in their title. Empty if nothing matches. Finalized Nov. 30th.
+    // Answered from the trigram index, results come back in ID order.
     public List<Videogame> findByTitle(String vgTitle) { // RETURN TYPE CHANGED FROM UML's VOID TO LIST<> FOR MAINUI FUNCTIONALITY
-        List<Videogame> result = new ArrayList<>();
-        String vgTitleQ = vgTitle.toLowerCase();
-        for (Videogame vg : games) {
-            if (vg.getTitle().toLowerCase().contains(vgTitleQ)) {
-                result.add(vg);
-            }
+        long start = FIND_BY_TITLE_TIMER.start();
+        try {
+            return read(() -> {
+                int[] ids = titleIds(vgTitle);
+                List<Videogame> result = new ArrayList<>(ids.length);
+                for (int id : ids) {
+                    result.add(byId.get(id));
+                }
+                return result;
+            });
+        } finally {
+            FIND_BY_TITLE_TIMER.stop(start);
+        }
+    }
+
+    // Accepts a title query with possible typos ("Star Qest"), the edit distance allowed per word and a result limit. ADDED POST-UML
+    // Returns up to limit games that have a close word for every query word, closest first (then by ID).
+    // Short words get less slack (see TitleIndex.allowedDistance), digits must match exactly.
+    // Answered from the word BK-tree; while a background rebuild runs, titles are scored one by one instead.
+    public List<Videogame> findByTitleFuzzy(String query, int maxDistance, int limit) {
+        long start = FIND_FUZZY_TIMER.start();
+        try {
+            if (query == null || query.isBlank() || limit <= 0) return new ArrayList<>();
+            return read(() -> {
+                if (staleTitles == null) {
+                    int[] ids = titles.fuzzy(query, maxDistance, limit);
+                    List<Videogame> result = new ArrayList<>(ids.length);
+                    for (int id : ids) {
+                        result.add(byId.get(id));
+                    }
+                    return result;
+                }
+                String[] terms = TitleIndex.terms(query);
+                List<long[]> scored = new ArrayList<>();
+                for (Videogame vg : byId.values()) {
+                    int score = TitleIndex.score(terms, maxDistance, vg.getTitle());
+                    if (score >= 0) scored.add(new long[]{score, vg.getID()});
+                }
+                scored.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+                List<Videogame> result = new ArrayList<>();
+                for (int i = 0; i < scored.size() && i < limit; i++) {
+                    result.add(byId.get((int) scored.get(i)[1]));
+                }
+                return result;
+            });
+        } finally {
+            FIND_FUZZY_TIMER.stop(start);
+        }
+    }
+
+    // Accepts free text ("space rpg", "farming") and k. Returns up to k games whose title or description contains ADDED POST-UML
+    // any of its words, best BM25 match first (title words weigh double). Only games in the query terms' posting
+    // lists are looked at, and MaxScore pruning skips most of those once the top k is settled.
+    // While a background rebuild runs there is no index yet, so the query indexes the whole catalog on the spot (slow, but correct).
+    public List<Videogame> searchText(String query, int k) {
+        long start = SEARCH_TEXT_TIMER.start();
+        try {
+            if (query == null || query.isBlank() || k <= 0) return new ArrayList<>();
+            return read(() -> {
+                TextIndex index = text;
+                if (staleTitles != null) {
+                    index = new TextIndex();
+                    for (Videogame vg : byId.values()) {
+                        index.put(vg.getID(), vg.getTitle(), vg.getDescription());
+                    }
+                }
+                int[] ids = index.search(query, k);
+                List<Videogame> result = new ArrayList<>(ids.length);
+                for (int id : ids) {
+                    result.add(byId.get(id));
+                }
+                return result;
+            });
+        } finally {
+            SEARCH_TEXT_TIMER.stop(start);
         }
-        return result;
     }
 
     // [Skaraki] ChatGPT assisted. Accepts genre enum genre, prints videogames of said genre. Finalized Nov. 30th.
-    public void searchByGenre(Videogame.Genre genre) {
-        System.out.println("searchByGenre: " + genre);
-        boolean found = false;
-        for (Videogame vg : games) {
-            if (vg.getGenre() == genre) {
-                System.out.println("  -> " + vg);
-                found = true;
+    // The listing goes to the listener as a GenreListing event; the games are also returned.
+    public List<Videogame> searchByGenre(Videogame.Genre genre) {
+        List<Videogame> found = findByGenre(genre);
+        emit(new StoreEvent.GenreListing(genre, found));
+        return found;
+    }
+
+    // Accepts genre enum genre. Returns the videogames of said genre in ID order, read straight off the genre bitset. ADDED POST-UML
+    public List<Videogame> findByGenre(Videogame.Genre genre) {
+        long start = FIND_BY_GENRE_TIMER.start();
+        try {
+            if (genre == null) return new ArrayList<>();
+            return read(() -> toGames(byGenre.get(genre)));
+        } finally {
+            FIND_BY_GENRE_TIMER.stop(start);
+        }
+    }
+
+    // Accepts optional filters (null title/genre means "any"). Returns matching videogames in ID order. ADDED POST-UML
+    // Title and genre are combined by intersecting ID bitsets, only the survivors have their price checked. Prices are in cents.
+    // In COLUMNAR storage a genre + price search with no title is one pass over the genre and price columns instead.
+    public List<Videogame> search(String title, Videogame.Genre genre, long minPrice, long maxPrice) {
+        long start = SEARCH_TIMER.start();
+        try {
+            if (genre == null && (title == null || title.isBlank())) {
+                return read(() -> { // only the games in the price band are touched, re-sorted into ID order
+                    BitSet ids = new BitSet();
+                    for (Iterator<RangeIndex.Entry> it = prices.range(minPrice, maxPrice); it.hasNext(); ) {
+                        ids.set(it.next().id());
+                    }
+                    return toGames(ids);
+                });
             }
+            if (columns != null && (title == null || title.isBlank())) {
+                return read(() -> columns.select(genre, minPrice, maxPrice));
+            }
+            return read(() -> {
+                BitSet ids = bitsFor(title, genre);
+                List<Videogame> result = new ArrayList<>();
+                for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                    Videogame vg = byId.get(id);
+                    if (vg.getPriceCents() >= minPrice && vg.getPriceCents() <= maxPrice) result.add(vg);
+                }
+                return result;
+            });
+        } finally {
+            SEARCH_TIMER.stop(start);
+        }
+    }
+
+    // HELPER (NOT IN UML). Accepts title and/or genre filter (at least one set). Returns the intersection of their ID bitsets.
+    private BitSet bitsFor(String title, Videogame.Genre genre) {
+        BitSet ids = null;
+        if (genre != null) {
+            ids = (BitSet) byGenre.get(genre).clone();
         }
-        if (!found) {
-            System.out.println("[X] No games found in this genre.");
+        if (title != null && !title.isBlank()) {
+            BitSet titleIds = new BitSet();
+            for (int id : titleIds(title)) {
+                titleIds.set(id);
+            }
+            if (ids == null) ids = titleIds;
+            else ids.and(titleIds);
         }
+        return ids;
     }
 
     // [Skaraki] ChatGPT assisted. Accepts videogame object. Prints all game info. Finalized Nov. 30th.
+    // Sent to the listener as a GameDetail event.
     public void showDetail(Videogame vg) {
-        System.out.println("=== Game Details ===");
-        System.out.println(vg);
-        System.out.println("Description:");
-        System.out.println(vg.getDescription());
-        System.out.println("===================");
+        emit(new StoreEvent.GameDetail(vg));
+    }
+
+    // Accepts where events should go (e.g. a ui.Renderer), or null / StoreEvent.Listener.NONE to drop them. ADDED POST-UML
+    public void setListener(StoreEvent.Listener listener) {
+        this.listener = listener == null ? StoreEvent.Listener.NONE : listener;
+    }
+
+    // Returns where listed games keep their fields. ADDED POST-UML
+    public Storage getStorage() {
+        return storage;
+    }
+
+    // HELPER (NOT IN UML). Passes an event to the listener. Only for rare events: hot paths check for NONE before building one.
+    private void emit(StoreEvent event) {
+        listener.on(event);
     }
 
     // [Skaraki] ChatGPT assisted. Accepts user object, checks if owner. Finalized Nov. 30th.
@@ -118,18 +542,309 @@ public class GameService {
         return user == null || user.getRole() != User.Role.OWNER;
     }
 
+    // Accepts an inclusive price band in cents. Returns the games in it, cheapest first (ties in ID order). ADDED POST-UML
+    public List<Videogame> findByPriceRange(long minPrice, long maxPrice) {
+        long start = FIND_BY_PRICE_TIMER.start();
+        try {
+            return read(() -> collect(prices.range(minPrice, maxPrice)));
+        } finally {
+            FIND_BY_PRICE_TIMER.stop(start);
+        }
+    }
+
+    // Accepts an inclusive stock band. Returns the games in it, lowest stock first (ties in ID order). ADDED POST-UML
+    // Stock moved by checkouts is folded into the index first, so the answer is current as of the call.
+    public List<Videogame> findByStockRange(int minStock, int maxStock) {
+        long start = FIND_BY_STOCK_TIMER.start();
+        try {
+            reconcileStock();
+            List<Videogame> found = read(() -> collect(stocks.range(minStock, maxStock)));
+            found.removeIf(vg -> vg.getStock() < minStock || vg.getStock() > maxStock); // sold since the reconcile
+            return found;
+        } finally {
+            FIND_BY_STOCK_TIMER.stop(start);
+        }
+    }
+
+    // Accepts owner and threshold. Returns every game with fewer than threshold copies left, lowest stock first. ADDED POST-UML
+    // Throws PermissionException for anyone but an owner.
+    public List<Videogame> lowStock(User user, int threshold) {
+        if (isOwner(user)) {
+            throw new StoreExceptions.PermissionException("[X] Only owners can see the low stock report.");
+        }
+        if (threshold == Integer.MIN_VALUE) return new ArrayList<>();
+        return findByStockRange(Integer.MIN_VALUE, threshold - 1);
+    }
+
+    // Accepts owner. Returns games, copies, inventory value, average price, sold-out count and a price histogram ADDED POST-UML
+    // per genre and for the whole catalog (see InventoryReport). Throws PermissionException for anyone but an owner.
+    // Computed in parallel on the common fork/join pool: in slot ranges over the off-heap columns in COLUMNAR storage,
+    // over the listAll() snapshot otherwise. Stock sold during the pass may or may not be counted.
+    public InventoryReport inventoryReport(User user) {
+        if (isOwner(user)) {
+            throw new StoreExceptions.PermissionException("[X] Only owners can see the inventory report.");
+        }
+        long start = INVENTORY_TIMER.start();
+        try {
+            if (columns == null) return InventoryReport.of(listAll());
+            return read(() -> InventoryReport.of(columns.chunks()));
+        } finally {
+            INVENTORY_TIMER.stop(start);
+        }
+    }
+
+    // Accepts a continuation token from a previous call (null or empty for the first page) and a page size (1-1000).
+    // Returns up to pageSize games cheapest first (ties in ID order) plus the token for the next page. ADDED POST-UML
+    // The token is the last game's "price:ID", so like listPage() nothing repeats while the catalog changes; a game whose
+    // price changes mid-browse moves to its new place in the order. Throws InvalidInputException on a bad token or size.
+    public Page listByPrice(String cursor, int pageSize) {
+        long start = LIST_BY_PRICE_TIMER.start();
+        try {
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new StoreExceptions.InvalidInputException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+            }
+            long afterPrice = Long.MIN_VALUE;
+            int afterId = 0;
+            if (cursor != null && !cursor.isEmpty()) {
+                int colon = cursor.indexOf(':');
+                try {
+                    afterPrice = Long.parseLong(cursor.substring(0, Math.max(colon, 0)));
+                    afterId = Integer.parseInt(cursor.substring(colon + 1));
+                } catch (NumberFormatException e) {
+                    throw new StoreExceptions.InvalidInputException("Invalid page cursor '" + cursor + "'.");
+                }
+            }
+            long fromPrice = afterPrice;
+            int fromId = afterId;
+            return read(() -> {
+                List<RangeIndex.Entry> entries = prices.after(fromPrice, fromId, pageSize + 1);
+                boolean more = entries.size() > pageSize;
+                List<Videogame> games = new ArrayList<>(Math.min(pageSize, entries.size()));
+                for (int i = 0; i < entries.size() && i < pageSize; i++) {
+                    games.add(entries.get(i).game());
+                }
+                RangeIndex.Entry last = more ? entries.get(pageSize - 1) : null;
+                return new Page(Collections.unmodifiableList(games), last == null ? null : last.value() + ":" + last.id());
+            });
+        } finally {
+            LIST_BY_PRICE_TIMER.stop(start);
+        }
+    }
+
     // [Skaraki] ChatGPT assisted. Lists all games. Finalized Nov. 30th
+    // Returns an immutable snapshot in ID order. It is shared between callers and only rebuilt after an add/remove.
     public List<Videogame> listAll() { // ADDED POST-UML
-        return new ArrayList<>(games);
+        long start = LIST_ALL_TIMER.start();
+        try {
+            Snapshot snap = snapshot;
+            if (snap.version == version) {
+                return snap.games;
+            }
+            long stamp = lock.readLock();
+            try {
+                List<Videogame> all = byId.values();
+                all.sort(Comparator.comparingInt(Videogame::getID));
+                snap = new Snapshot(version, List.copyOf(all));
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            snapshot = snap; // a stale publish is harmless, the next caller sees the version mismatch and rebuilds
+            return snap.games;
+        } finally {
+            LIST_ALL_TIMER.stop(start);
+        }
+    }
+
+    // Accepts a continuation token from a previous page (null or empty for the first page) and a page size (1-1000).
+    // Returns up to pageSize games in ID order plus the token for the next page (null on the last page). ADDED POST-UML
+    // The token is the last ID returned, so paging stays stable while games are added or removed: nothing is repeated,
+    // removed games are skipped, and games added since (new IDs are always higher) show up on later pages.
+    // Only the page itself is copied, never the whole catalog. Throws InvalidInputException on a bad token or size.
+    public Page listPage(String cursor, int pageSize) {
+        long start = LIST_PAGE_TIMER.start();
+        try {
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new StoreExceptions.InvalidInputException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+            }
+            return page(decodeCursor(cursor), pageSize);
+        } finally {
+            LIST_PAGE_TIMER.stop(start);
+        }
+    }
+
+    // Returns a lazy stream over the catalog in ID order. ADDED POST-UML
+    // Games are fetched STREAM_CHUNK at a time as the stream is consumed, with the same guarantees as listPage().
+    public Stream<Videogame> stream() {
+        Iterator<Videogame> it = new Iterator<>() {
+            private List<Videogame> chunk = List.of();
+            private int pos;
+            private int after = 0; // last ID handed out, IDs start at 1
+            private boolean last;
+
+            @Override
+            public boolean hasNext() {
+                if (pos < chunk.size()) return true;
+                if (last) return false;
+                Page p = page(after, STREAM_CHUNK);
+                chunk = p.games();
+                pos = 0;
+                last = p.next() == null;
+                if (!chunk.isEmpty()) after = chunk.get(chunk.size() - 1).getID();
+                return !chunk.isEmpty();
+            }
+
+            @Override
+            public Videogame next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return chunk.get(pos++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
     }
 
     // [Skaraki] ChatGPT assisted. Accepts int id. Returns Optional (whether a game with such an id exists or not).
     public Optional<Videogame> optionalID(int vgID) { // ADDED POST-UML FOR MAINUI FUNCTIONALITY
-        for (Videogame vg : games) {
-            if (vg.getID() == vgID) return Optional.of(vg);
+        return Optional.ofNullable(findByID(vgID));
+    }
+
+    // HELPER (NOT IN UML). Runs an index query as an optimistic read, falls back to the read lock if a write raced it.
+    // A racing write can leave the indexes half-updated, so any exception from the optimistic pass just means "retry".
+    private <T> T read(Supplier<T> query) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = query.get();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException raced) {
+                // fall through to the locked retry
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return query.get();
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return Optional.empty();
     }
 
+    // HELPER (NOT IN UML). Accepts title query. Returns sorted IDs of matching games, from the trigram index,
+    // or by scanning the titles while a rebuild is still running. Caller is inside read().
+    private int[] titleIds(String query) {
+        if (staleTitles == null) {
+            return titles.search(query);
+        }
+        String q = TitleIndex.normalize(query);
+        return byId.values().stream()
+                .filter(vg -> TitleIndex.normalize(vg.getTitle()).contains(q))
+                .mapToInt(Videogame::getID)
+                .sorted()
+                .toArray();
+    }
+
+    // HELPER (NOT IN UML). Accepts the last ID already returned and a page size. Returns the next games after it in ID order.
+    private Page page(int after, int pageSize) {
+        return read(() -> {
+            List<Videogame> games = new ArrayList<>(Math.min(pageSize, 64));
+            int last = after;
+            int id = after == Integer.MAX_VALUE ? -1 : listed.nextSetBit(after + 1);
+            while (id >= 0 && games.size() < pageSize) {
+                games.add(byId.get(id));
+                last = id;
+                id = id == Integer.MAX_VALUE ? -1 : listed.nextSetBit(id + 1);
+            }
+            return new Page(Collections.unmodifiableList(games), id < 0 ? null : Integer.toString(last));
+        });
+    }
+
+    // HELPER (NOT IN UML). Accepts a continuation token. Returns the last ID it stands for (0 = start).
+    private static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return 0;
+        try {
+            int after = Integer.parseInt(cursor);
+            if (after >= 0) return after;
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new StoreExceptions.InvalidInputException("Invalid page cursor '" + cursor + "'.");
+    }
+
+    // HELPER (NOT IN UML). Accepts index entries, returns their games in that order. Caller is inside read().
+    private static List<Videogame> collect(Iterator<RangeIndex.Entry> it) {
+        List<Videogame> result = new ArrayList<>();
+        while (it.hasNext()) {
+            result.add(it.next().game());
+        }
+        return result;
+    }
+
+    // HELPER (NOT IN UML). Moves every game whose stock changed since the last call to its current place in the stock index.
+    // Checkouts only mark games (see stockChanged), so the index is fixed up here, by whoever asks about stock, in one write.
+    private void reconcileStock() {
+        if (stockDirty.isEmpty()) return;
+        long stamp = lock.writeLock();
+        try {
+            for (Iterator<Videogame> it = stockDirty.iterator(); it.hasNext(); ) {
+                Videogame vg = it.next();
+                it.remove(); // before reading the stock, so a change racing us marks the game again
+                if (byId.get(vg.getID()) == vg) stocks.put(vg, vg.getStock());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // HELPER (NOT IN UML). Accepts a bitset of IDs, returns the matching videogames in ID order.
+    private List<Videogame> toGames(BitSet ids) {
+        List<Videogame> result = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(byId.get(id));
+        }
+        return result;
+    }
+
+    // HELPER (NOT IN UML). Accepts videogame object, adds it to the indexes. Returns false if the ID is already taken. Caller holds the write lock.
+    // In COLUMNAR storage it is the game's view that gets listed and indexed.
+    private boolean index(Videogame game) {
+        if (byId.containsKey(game.getID())) {
+            return false;
+        }
+        Videogame vg = columns == null ? game : columns.add(game);
+        byId.put(vg.getID(), vg);
+        listed.set(vg.getID());
+        if (staleTitles != null) {
+            staleTitles.set(vg.getID());
+        } else {
+            titles.add(vg.getID(), vg.getTitle());
+            text.put(vg.getID(), vg.getTitle(), vg.getDescription());
+        }
+        if (vg.getGenre() != null) byGenre.get(vg.getGenre()).set(vg.getID());
+        prices.put(vg, vg.getPriceCents());
+        stocks.put(vg, vg.getStock());
+        vg.setChangeListener(reindexer);
+        version++;
+        return true;
+    }
+
+    /**
+     * Where listed games keep their fields.
+     * HEAP: in the Videogame objects that were added (the default).
+     * COLUMNAR: in off-heap columns of ID, price, stock and genre, with titles and descriptions in separate arrays
+     * (see ColumnarStore). The catalog hands out Videogame views of them, so callers notice no difference, while
+     * scans over those fields never touch a game object.
+     */
+    public enum Storage { HEAP, COLUMNAR }
+
+    /**
+     * One page of the catalog (in ID order from listPage(), cheapest first from listByPrice()) and the token to pass
+     * back for the next one (null after the last page).
+     */
+    public record Page(List<Videogame> games, String next) {}
+
+    /**
+     * Immutable catalog listing tagged with the version it was built from.
+     */
+    private record Snapshot(long version, List<Videogame> games) {}
+
 }
 
@@ -0,0 +1,170 @@
+package services;
+
+import models.Videogame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Owner's view of the inventory: per genre (and for the whole catalog) how many games there are, how many copies,
+ * what they are worth at list price, the average price, how many are sold out and how prices are spread.
+ * All amounts are in cents (see Money).
+ *
+ * Built by GameService.inventoryReport() in one parallel pass over the catalog. Each task fills its own Tally
+ * (flat primitive arrays, one slot per genre) and the tallies are merged at the end, so there is no sharing while scanning.
+ */
+public record InventoryReport(List<Line> genres, Line total, List<Long> priceEdges) {
+
+    // Lower bounds (inclusive) of the price histogram's bands in cents: under $5, $5-10, $10-20, ..., $70 and up.
+    // All multiples of BAND_STEP, so a price finds its band with one division and a table lookup.
+    static final long[] PRICE_EDGES = {0, 500, 1000, 2000, 3000, 4000, 5000, 6000, 7000};
+    private static final long BAND_STEP = 500;
+    private static final Videogame.Genre[] GENRES = Videogame.Genre.values();
+    private static final int NONE = GENRES.length; // TALLY SLOT OF GAMES WITHOUT A GENRE
+    private static final int BANDS = PRICE_EDGES.length;
+    private static final int SPLIT_BITS = 10;
+    private static final int SPLIT = 1 << SPLIT_BITS; // SLOTS PER TASK OVER THE COLUMNS, DIVIDES ColumnarStore.CHUNK
+    private static final int SPLITS_PER_CHUNK = ColumnarStore.CHUNK / SPLIT;
+    private static final byte[] BAND_OF = new byte[(int) (PRICE_EDGES[BANDS - 1] / BAND_STEP)]; // price / BAND_STEP -> BAND, BELOW THE LAST EDGE
+
+    static {
+        for (int band = 0, i = 0; i < BAND_OF.length; i++) {
+            if (band + 1 < BANDS && i * BAND_STEP >= PRICE_EDGES[band + 1]) band++;
+            BAND_OF[i] = (byte) band;
+        }
+    }
+
+    /**
+     * Figures for one genre (genre null: games without one, or the total).
+     * units and value only count games in stock; value saturates at Long.MAX_VALUE.
+     * histogram.get(b) is the number of games priced from priceEdges.get(b) up to the next edge.
+     */
+    public record Line(Videogame.Genre genre, int games, long units, long value, long averagePrice, int outOfStock,
+                       List<Integer> histogram) {}
+
+    // =======================
+    // BUILDING
+    // =======================
+
+    // Accepts the off-heap columns. Scans them SPLIT slots per task on the common fork/join pool, so even a catalog
+    // that fits in one chunk is spread over every core. Task s covers slots [s % SPLITS_PER_CHUNK * SPLIT, + SPLIT)
+    // of chunk s / SPLITS_PER_CHUNK; ranges past a chunk's used slots are skipped.
+    static InventoryReport of(ColumnarStore.Chunk[] chunks) {
+        return IntStream.range(0, chunks.length * SPLITS_PER_CHUNK).parallel()
+                .filter(s -> (s % SPLITS_PER_CHUNK) * SPLIT < chunks[s / SPLITS_PER_CHUNK].used())
+                .mapToObj(s -> tally(chunks[s / SPLITS_PER_CHUNK], (s % SPLITS_PER_CHUNK) * SPLIT))
+                .reduce(Tally::merge)
+                .orElseGet(Tally::new)
+                .report();
+    }
+
+    // Accepts heap games (an immutable snapshot). Splits the list across the common fork/join pool.
+    static InventoryReport of(List<Videogame> games) {
+        return games.parallelStream()
+                .collect(Tally::new, (t, vg) -> t.add(vg.getGenre() == null ? -1 : vg.getGenre().ordinal(),
+                        vg.getPriceCents(), vg.getStock()), Tally::merge)
+                .report();
+    }
+
+    // HELPER (NOT IN UML). Tallies up to SPLIT slots of one chunk, from slot `from`, straight off its columns.
+    private static Tally tally(ColumnarStore.Chunk c, int from) {
+        Tally t = new Tally();
+        for (int i = from, n = Math.min(from + SPLIT, c.used()); i < n; i++) {
+            if (c.id(i) != 0) t.add(c.genre(i), c.price(i), c.stockPlain(i));
+        }
+        return t;
+    }
+
+    /**
+     * Running totals of one worker, indexed by genre ordinal (NONE for no genre).
+     */
+    private static final class Tally {
+        private final int[] games = new int[NONE + 1];
+        private final int[] outOfStock = new int[NONE + 1];
+        private final long[] units = new long[NONE + 1];
+        private final long[] value = new long[NONE + 1];
+        private final long[] priceSum = new long[NONE + 1];
+        private final int[] histogram = new int[(NONE + 1) * BANDS]; // [genre * BANDS + band]
+
+        // Branch-free apart from the genre and band lookups: sold-out games add 0 copies and 0 value.
+        void add(int genre, long price, int stock) {
+            int g = genre < 0 ? NONE : genre;
+            int inStock = Math.max(stock, 0);
+            games[g]++;
+            priceSum[g] += price;
+            outOfStock[g] += inStock == 0 ? 1 : 0;
+            units[g] += inStock;
+            value[g] = plus(value[g], worth(price, inStock));
+            histogram[g * BANDS + band(price)]++;
+        }
+
+        Tally merge(Tally o) {
+            for (int g = 0; g <= NONE; g++) {
+                games[g] += o.games[g];
+                outOfStock[g] += o.outOfStock[g];
+                units[g] += o.units[g];
+                value[g] = plus(value[g], o.value[g]);
+                priceSum[g] += o.priceSum[g];
+            }
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += o.histogram[i];
+            }
+            return this;
+        }
+
+        InventoryReport report() {
+            List<Line> lines = new ArrayList<>(NONE + 1);
+            int totalGames = 0, totalOut = 0;
+            long totalUnits = 0, totalValue = 0, totalPrice = 0;
+            Integer[] totalHistogram = new Integer[BANDS];
+            Arrays.fill(totalHistogram, 0);
+            for (int g = 0; g <= NONE; g++) {
+                if (g == NONE && games[g] == 0) break; // only listed when some game has no genre
+                Integer[] h = new Integer[BANDS];
+                for (int b = 0; b < BANDS; b++) {
+                    h[b] = histogram[g * BANDS + b];
+                    totalHistogram[b] += h[b];
+                }
+                lines.add(new Line(g == NONE ? null : GENRES[g], games[g], units[g], value[g], average(priceSum[g], games[g]),
+                        outOfStock[g], List.of(h)));
+                totalGames += games[g];
+                totalOut += outOfStock[g];
+                totalUnits += units[g];
+                totalValue = plus(totalValue, value[g]);
+                totalPrice += priceSum[g];
+            }
+            Line total = new Line(null, totalGames, totalUnits, totalValue, average(totalPrice, totalGames), totalOut,
+                    List.of(totalHistogram));
+            return new InventoryReport(List.copyOf(lines), total, Arrays.stream(PRICE_EDGES).boxed().toList());
+        }
+    }
+
+    // =======================
+    // HELPERS
+    // =======================
+
+    // Accepts a price in cents. Returns its histogram band.
+    private static int band(long price) {
+        if (price < 0) return 0;
+        long step = price / BAND_STEP;
+        return step < BAND_OF.length ? BAND_OF[(int) step] : BANDS - 1;
+    }
+
+    // price * stock (stock >= 0) at list price, Long.MAX_VALUE if that does not fit.
+    private static long worth(long price, int stock) {
+        long worth = Math.max(price, 0) * stock;
+        return Math.multiplyHigh(Math.max(price, 0), stock) == 0 && worth >= 0 ? worth : Long.MAX_VALUE;
+    }
+
+    // a + b for non-negative amounts, Long.MAX_VALUE instead of overflowing.
+    private static long plus(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long average(long sum, int count) {
+        return count == 0 ? 0 : Math.round((double) sum / count);
+    }
+}
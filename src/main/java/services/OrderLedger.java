@@ -0,0 +1,372 @@
+package services;
+
+import models.ShoppingCart;
+import util.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped log of completed orders, one binary record per checkout.
+ *
+ * The log is a directory of segment files, each SEGMENT_BYTES long and named after the first order ID it holds
+ * (00000000000000000001.seg, ...). When a record does not fit in the current segment, a new one is started.
+ *
+ * Layout (big-endian):
+ *   segment  magic "S2KL", format version, first order ID (long), then records back to back, then zeros
+ *   record   payload length (int), CRC32C of the payload (int), payload:
+ *            order ID (long), timestamp in epoch ms (long), total in cents (long), line count (int),
+ *            username length in bytes (int), then the customer's username (UTF-8),
+ *            then per line: game ID (int), quantity (int), unit price in cents (long)
+ *
+ * Customers are recorded by username: user IDs are handed out afresh every time users.txt is loaded, so an ID
+ * would point at a different customer (or none) after the next restart.
+ *
+ * Order IDs are consecutive across segments. Checkouts only queue their order; a single background writer drains
+ * everything queued so far, copies it into the mapped segment and forces it to disk once per batch (group commit),
+ * so concurrent checkouts share one fsync instead of queueing behind each other's. If the writer ever stops (close,
+ * interrupt or an unexpected error) every order not yet on disk fails and the ledger counts as closed, so no checkout
+ * can wait forever on it.
+ * On startup only the last segment is scanned: records are accepted while their length, CRC and order ID check out,
+ * and the log continues after the last good one. A torn tail (crash mid-write) is zeroed before writing resumes.
+ */
+public class OrderLedger implements AutoCloseable {
+
+    // =======================
+    // FIELDS
+    // =======================
+    public static final int SEGMENT_BYTES = 64 << 20; // DEFAULT SEGMENT SIZE
+    private static final int MAGIC = 0x53324B4C; // "S2KL"
+    private static final int FORMAT = 2; // 1 RECORDED THE SESSION-LOCAL USER ID INSTEAD OF THE USERNAME
+    private static final int HEADER_BYTES = 16;
+    private static final int FRAME_BYTES = 8;  // LENGTH + CRC
+    private static final int ORDER_BYTES = 32; // FIXED PART OF THE PAYLOAD, BEFORE THE USERNAME
+    private static final int LINE_BYTES = 16;
+    private static final String SUFFIX = ".seg";
+    private static final MetricsRegistry.Timer FORCE_TIMER = MetricsRegistry.DEFAULT.timer("OrderLedger.force");
+    private static final MetricsRegistry.Counter ORDERS = MetricsRegistry.DEFAULT.counter("OrderLedger.orders");
+    private static final Pending SHUTDOWN = new Pending(null, null, 0, 0, null);
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final CRC32C crc = new CRC32C(); // WRITER THREAD ONLY
+    private FileChannel channel;       // CURRENT SEGMENT, WRITER THREAD ONLY (AFTER THE CONSTRUCTOR)
+    private MappedByteBuffer segment;  // ITS MAPPING, POSITIONED AT THE END OF THE LAST RECORD
+    private int unforced;              // START OF THE RECORDS WRITTEN BUT NOT FORCED YET, WRITER THREAD ONLY
+    private long nextOrderId;
+    private volatile long lastOrderId; // LAST ORDER ON DISK
+    private boolean closed; // GUARDED BY this
+
+    private record Pending(byte[] username, List<ShoppingCart.Line> lines, long total, long timestamp,
+                           CompletableFuture<Long> done) {}
+
+    // =======================
+    // CONSTRUCTOR / RECOVERY
+    // =======================
+
+    // Accepts the ledger directory (created if missing). Recovers the log and starts the writer.
+    public OrderLedger(Path dir) throws IOException {
+        this(dir, SEGMENT_BYTES);
+    }
+
+    // Accepts the ledger directory and the size of new segments (existing ones keep theirs).
+    public OrderLedger(Path dir, int segmentBytes) throws IOException {
+        if (segmentBytes < HEADER_BYTES + FRAME_BYTES + ORDER_BYTES + LINE_BYTES) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentBytes);
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(dir);
+        Path last;
+        try (Stream<Path> files = Files.list(dir)) {
+            last = files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).max(Path::compareTo).orElse(null);
+        }
+        if (last == null) {
+            openSegment(1);
+        } else {
+            recover(last);
+        }
+        this.writer = new Thread(this::writeLoop, "order-ledger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // HELPER (NOT IN UML). Maps the last segment and finds the end of its last valid record.
+    private void recover(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        long firstId;
+        try {
+            firstId = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected file in order ledger: " + file);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int size = (int) Math.min(Integer.MAX_VALUE, Math.max(channel.size(), HEADER_BYTES));
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (segment.getInt(0) != MAGIC) { // crashed before the header of a fresh segment reached the disk
+            writeHeader(firstId);
+        } else if (segment.getLong(8) != firstId) {
+            throw new IOException("Corrupt order ledger segment header: " + file);
+        } else if (segment.getInt(4) != FORMAT) {
+            throw new IOException("Order ledger segment " + file + " has format " + segment.getInt(4) + ", expected " + FORMAT
+                    + ". Move the old ledger aside to start a new one.");
+        }
+
+        int pos = HEADER_BYTES;
+        long expected = firstId;
+        while (pos + FRAME_BYTES <= size) {
+            int length = segment.getInt(pos);
+            if (length == 0) break; // clean end
+            if (length < ORDER_BYTES || length > size - pos - FRAME_BYTES || length != payloadLength(pos + FRAME_BYTES)
+                    || segment.getInt(pos + 4) != checksum(pos + FRAME_BYTES, length)
+                    || segment.getLong(pos + FRAME_BYTES) != expected) {
+                zero(pos, size); // torn tail: never acknowledged, must not resurface behind newer records
+                segment.force();
+                break;
+            }
+            expected++;
+            pos += FRAME_BYTES + length;
+        }
+        segment.position(pos);
+        nextOrderId = expected;
+        lastOrderId = expected - 1;
+    }
+
+    // HELPER (NOT IN UML). Starts a new segment whose first record will be order firstId.
+    private void openSegment(long firstId) throws IOException {
+        Path file = dir.resolve(String.format("%020d", firstId) + SUFFIX);
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped;
+        try {
+            mapped = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+        if (channel != null) channel.close(); // the old mapping stays valid until it is collected
+        channel = ch;
+        segment = mapped;
+        writeHeader(firstId);
+        segment.force(0, HEADER_BYTES);
+        segment.position(HEADER_BYTES);
+        nextOrderId = firstId;
+        lastOrderId = firstId - 1;
+    }
+
+    // HELPER (NOT IN UML). Length the payload at segment[payload] should have going by its line count and username
+    // length, -1 if those are out of range.
+    private long payloadLength(int payload) {
+        int lineCount = segment.getInt(payload + 24);
+        int nameLength = segment.getInt(payload + 28);
+        if (lineCount < 0 || nameLength < 0) return -1;
+        return ORDER_BYTES + (long) nameLength + (long) LINE_BYTES * lineCount;
+    }
+
+    private void writeHeader(long firstId) {
+        segment.putInt(0, MAGIC).putInt(4, FORMAT).putLong(8, firstId);
+    }
+
+    // =======================
+    // APPEND
+    // =======================
+
+    // Accepts the order (customer's username, lines as paid for, total in cents, timestamp in epoch ms). Queues it and
+    // returns a future completed with its order ID once it is on disk, or exceptionally if it could not be written or
+    // the ledger is closed.
+    public CompletableFuture<Long> append(String username, List<ShoppingCart.Line> lines, long total, long timestamp) {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                done.completeExceptionally(new IOException("Order ledger is closed."));
+            } else {
+                queue.add(new Pending(name, lines, total, timestamp, done));
+            }
+        }
+        return done;
+    }
+
+    // Returns the ID of the last order known to be on disk (0 before the first one).
+    public long lastOrderId() {
+        return lastOrderId;
+    }
+
+    // Writes everything queued so far, then stops the writer and closes the current segment.
+    // Also closes the segment of a writer that already stopped on its own.
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (!closed) {
+                closed = true;
+                queue.add(SHUTDOWN);
+            }
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    // =======================
+    // GROUP-COMMIT WRITER
+    // =======================
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        List<Pending> written = new ArrayList<>(); // IN THE CURRENT SEGMENT, NOT FORCED YET
+        try {
+            drainLoop(batch, written);
+        } finally {
+            failRemaining(batch, written);
+        }
+    }
+
+    private void drainLoop(List<Pending> batch, List<Pending> written) {
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+
+            unforced = segment.position();
+            for (Pending p : batch) {
+                if (p == SHUTDOWN) {
+                    running = false;
+                    continue;
+                }
+                long length = ORDER_BYTES + p.username.length + (long) LINE_BYTES * p.lines.size();
+                if (FRAME_BYTES + length > segmentBytes - HEADER_BYTES) {
+                    p.done.completeExceptionally(new IOException("Order is too large for one ledger segment."));
+                    continue;
+                }
+                if (FRAME_BYTES + length > segment.remaining()) {
+                    try {
+                        if (!force(written, unforced)) throw new IOException("Unable to seal the full ledger segment.");
+                        openSegment(nextOrderId);
+                    } catch (IOException e) {
+                        p.done.completeExceptionally(e);
+                        continue;
+                    } finally {
+                        unforced = segment.position();
+                    }
+                }
+                put(p, (int) length);
+                written.add(p);
+            }
+            force(written, unforced);
+            batch.clear();
+        }
+    }
+
+    // HELPER (NOT IN UML). Once the writer stops, for whatever reason (close, interrupt, an unexpected exception):
+    // refuses new orders, takes back any written but unforced records and fails every order not on disk yet,
+    // so no checkout waits on a future that can no longer complete.
+    private void failRemaining(List<Pending> batch, List<Pending> written) {
+        synchronized (this) {
+            closed = true;
+        }
+        IOException stopped = new IOException("Order ledger writer stopped.");
+        if (!written.isEmpty()) {
+            try {
+                zero(unforced, segment.position());
+                segment.position(unforced);
+                nextOrderId -= written.size();
+            } catch (RuntimeException e) {
+                stopped.addSuppressed(e);
+            }
+        }
+        for (Pending p : written) {
+            p.done.completeExceptionally(stopped);
+        }
+        for (Pending p : batch) {
+            if (p != SHUTDOWN) p.done.completeExceptionally(stopped); // no-op for those already completed
+        }
+        for (Pending p; (p = queue.poll()) != null; ) {
+            if (p != SHUTDOWN) p.done.completeExceptionally(stopped);
+        }
+    }
+
+    // HELPER (NOT IN UML). Encodes one order at the segment's position with the next order ID.
+    private void put(Pending p, int length) {
+        int pos = segment.position();
+        int payload = pos + FRAME_BYTES;
+        segment.putLong(payload, nextOrderId)
+                .putLong(payload + 8, p.timestamp)
+                .putLong(payload + 16, p.total)
+                .putInt(payload + 24, p.lines.size())
+                .putInt(payload + 28, p.username.length)
+                .put(payload + ORDER_BYTES, p.username);
+        int at = payload + ORDER_BYTES + p.username.length;
+        for (ShoppingCart.Line line : p.lines) {
+            segment.putInt(at, line.getGame().getID()).putInt(at + 4, line.getQuantity()).putLong(at + 8, line.getUnitPrice());
+            at += LINE_BYTES;
+        }
+        segment.putInt(pos + 4, checksum(payload, length));
+        segment.putInt(pos, length); // last: until then the slot still reads as the clean end of the log
+        segment.position(at);
+        nextOrderId++;
+    }
+
+    // HELPER (NOT IN UML). Forces segment[from, position) to disk with one fsync and completes the orders written there.
+    // On failure the region is zeroed and rewound, so none of them can surface later, and they fail. Returns success.
+    private boolean force(List<Pending> written, int from) {
+        if (written.isEmpty()) return true;
+        int to = segment.position();
+        long start = FORCE_TIMER.start();
+        try {
+            segment.force(from, to - from);
+        } catch (RuntimeException e) {
+            zero(from, to);
+            segment.position(from);
+            nextOrderId -= written.size();
+            for (Pending p : written) {
+                p.done.completeExceptionally(e);
+            }
+            written.clear();
+            return false;
+        } finally {
+            FORCE_TIMER.stop(start);
+        }
+        lastOrderId = nextOrderId - 1; // before completing, so whoever sees their order ID also sees it here
+        ORDERS.add(written.size());
+        long id = nextOrderId - written.size();
+        for (Pending p : written) {
+            p.done.complete(id++);
+        }
+        written.clear();
+        return true;
+    }
+
+    // HELPER (NOT IN UML). Clears segment[from, to).
+    private void zero(int from, int to) {
+        byte[] zeros = new byte[Math.min(to - from, 1 << 16)];
+        for (int i = from; i < to; i += zeros.length) {
+            segment.put(i, zeros, 0, Math.min(zeros.length, to - i));
+        }
+    }
+
+    // HELPER (NOT IN UML). CRC32C of segment[from, from + length).
+    private int checksum(int from, int length) {
+        crc.reset();
+        crc.update(segment.slice(from, length));
+        return (int) crc.getValue();
+    }
+}
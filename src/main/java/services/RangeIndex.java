@@ -0,0 +1,87 @@
+package services;
+
+import models.Videogame;
+import util.IntHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Sorted secondary index of games by one numeric field (price in cents, stock).
+ * Entries are (value, ID) pairs kept in a skip list, so a range or "first k from here" query is a
+ * log n seek followed by a walk over just the k matches. Ties on value come out in ID order.
+ *
+ * Writes happen under GameService's write lock. The skip list never breaks under a concurrent writer,
+ * so GameService can still run queries as optimistic reads.
+ */
+class RangeIndex {
+
+    // =======================
+    // FIELDS
+    // =======================
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+    private final IntHashMap<Entry> current = new IntHashMap<>(); // ID -> ITS ENTRY, TO FIND THE OLD KEY ON AN UPDATE
+
+    /**
+     * One indexed game: the value it is sorted under (as of its last update) and the game itself.
+     */
+    record Entry(long value, int id, Videogame game) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry o) {
+            int c = Long.compare(value, o.value);
+            return c != 0 ? c : Integer.compare(id, o.id);
+        }
+    }
+
+    // =======================
+    // INDEX MAINTENANCE
+    // =======================
+
+    // Accepts a game and the value to sort it under. Adds it, or moves it if it was indexed under another value.
+    void put(Videogame vg, long value) {
+        Entry old = current.get(vg.getID());
+        if (old != null) {
+            if (old.value == value && old.game == vg) return;
+            entries.remove(old);
+        }
+        Entry e = new Entry(value, vg.getID(), vg);
+        entries.add(e);
+        current.put(vg.getID(), e);
+    }
+
+    // Accepts game ID. Drops its entry, if any.
+    void remove(int id) {
+        Entry old = current.remove(id);
+        if (old != null) entries.remove(old);
+    }
+
+    void clear() {
+        entries.clear();
+        current.clear();
+    }
+
+    // =======================
+    // QUERIES
+    // =======================
+
+    // Accepts an inclusive value range. Returns the entries in it, smallest value first.
+    Iterator<Entry> range(long min, long max) {
+        if (min > max) return Collections.emptyIterator();
+        return entries.subSet(new Entry(min, Integer.MIN_VALUE, null), true,
+                new Entry(max, Integer.MAX_VALUE, null), true).iterator();
+    }
+
+    // Accepts a position (value and ID of the last entry already seen; Long.MIN_VALUE, 0 for the start) and a limit.
+    // Returns up to limit entries after it.
+    List<Entry> after(long value, int id, int limit) {
+        List<Entry> page = new ArrayList<>(Math.min(limit, 64));
+        for (Entry e : entries.tailSet(new Entry(value, id, null), false)) {
+            if (page.size() == limit) break;
+            page.add(e);
+        }
+        return page;
+    }
+}
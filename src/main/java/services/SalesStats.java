@@ -0,0 +1,229 @@
+package services;
+
+import models.Money;
+import models.ShoppingCart;
+import models.Videogame;
+import util.IntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What has sold since the store started, kept up to date checkout by checkout (CartService feeds every receipt in).
+ *
+ * Three running aggregates, each updated in constant time per order line and read without looking at past orders:
+ *   best sellers   exact copies sold per game, plus the TRACKED games with the most copies in a small array sorted
+ *                  best first. Counts only grow, so a game can only enter it by overtaking the last one, and moves up
+ *                  by swapping with its neighbours. Ties keep the game that got there first.
+ *   genres         orders, copies and revenue per genre (and for games without one), by the genre at the time of sale
+ *   windows        orders, copies and revenue over the last minute, hour and day. Each window is a ring of time buckets
+ *                  with a running sum; buckets that fall out of the window are subtracted as time moves on.
+ *
+ * All amounts are in cents (see Money). One lock guards everything; it is held for a few array updates per line.
+ * Nothing is persisted: figures start at zero with every run (the OrderLedger keeps the orders themselves).
+ */
+public class SalesStats {
+
+    // =======================
+    // FIELDS
+    // =======================
+    public static final int TRACKED = 50; // LONGEST BEST SELLER LIST A REPORT CAN SHOW
+    private static final Videogame.Genre[] GENRES = Videogame.Genre.values();
+    private static final int NONE = GENRES.length; // SLOT OF GAMES WITHOUT A GENRE
+
+    private final IntHashMap<Tally> tallies = new IntHashMap<>(); // GAME ID -> COPIES AND REVENUE SO FAR
+    private final Tally[] top = new Tally[TRACKED]; // BEST SELLERS, BEST FIRST (top[i].rank == i)
+    private int topSize;
+    private final long[] genreOrders = new long[NONE + 1];
+    private final long[] genreUnits = new long[NONE + 1];
+    private final long[] genreRevenue = new long[NONE + 1];
+    private long orders, units, revenue;
+    private final Window[] windows = {
+            new Window("last minute", 1_000, 60),    // 1 s BUCKETS
+            new Window("last hour", 60_000, 60),     // 1 min BUCKETS
+            new Window("last day", 15 * 60_000, 96)  // 15 min BUCKETS
+    };
+
+    /**
+     * Everything a report shows, copied out under the lock.
+     * topSellers is best first; genres has one entry per genre (genre null: games without one, listed only if any sold);
+     * rates are the last minute, hour and day.
+     */
+    public record Report(long orders, long units, long revenue, List<Seller> topSellers, List<GenreSales> genres,
+                         List<Rate> rates) {}
+
+    /**
+     * Copies sold and revenue of one game. game is the listing it was last sold as.
+     */
+    public record Seller(Videogame game, long units, long revenue) {}
+
+    public record GenreSales(Videogame.Genre genre, long orders, long units, long revenue) {}
+
+    /**
+     * Sales within one sliding window of windowMillis. The window moves one bucket at a time, so its oldest
+     * bucket may be partly outside it.
+     */
+    public record Rate(String label, long windowMillis, long orders, long units, long revenue) {
+
+        // Average orders per minute over the window.
+        public double ordersPerMinute() {
+            return orders * 60_000.0 / windowMillis;
+        }
+    }
+
+    /**
+     * Running totals of one game. rank is its index in top, -1 while it is not there.
+     */
+    private static final class Tally {
+        Videogame game;
+        long units;
+        long revenue;
+        int rank = -1;
+    }
+
+    // =======================
+    // RECORDING
+    // =======================
+
+    // Accepts a successful checkout. Adds it to every aggregate.
+    synchronized void record(CartService.Receipt receipt) {
+        int seen = 0; // BIT PER GENRE SLOT ALREADY COUNTED FOR THIS ORDER
+        for (ShoppingCart.Line line : receipt.lines()) {
+            Videogame vg = line.getGame();
+            long paid = Money.times(line.getUnitPrice(), line.getQuantity());
+            sold(vg, line.getQuantity(), paid);
+            int g = vg.getGenre() == null ? NONE : vg.getGenre().ordinal();
+            if ((seen & 1 << g) == 0) {
+                seen |= 1 << g;
+                genreOrders[g]++;
+            }
+            genreUnits[g] += line.getQuantity();
+            genreRevenue[g] += paid;
+        }
+        orders++;
+        units += receipt.items();
+        revenue += receipt.total();
+        for (Window w : windows) {
+            w.add(receipt.timestamp(), receipt.items(), receipt.total());
+        }
+    }
+
+    // HELPER (NOT IN UML). Adds qty copies of vg to its tally and moves it up the best sellers as far as it now goes.
+    private void sold(Videogame vg, int qty, long paid) {
+        Tally t = tallies.get(vg.getID());
+        if (t == null) {
+            t = new Tally();
+            tallies.put(vg.getID(), t);
+        }
+        t.game = vg;
+        t.units += qty;
+        t.revenue += paid;
+        if (t.rank < 0) {
+            if (topSize < TRACKED) {
+                t.rank = topSize++;
+            } else if (t.units > top[TRACKED - 1].units) {
+                top[TRACKED - 1].rank = -1; // overtaken: no game outside has sold more than it
+                t.rank = TRACKED - 1;
+            } else {
+                return;
+            }
+            top[t.rank] = t;
+        }
+        while (t.rank > 0 && t.units > top[t.rank - 1].units) {
+            Tally above = top[t.rank - 1];
+            above.rank = t.rank;
+            top[t.rank] = above;
+            top[--t.rank] = t;
+        }
+    }
+
+    // =======================
+    // QUERY
+    // =======================
+
+    // Accepts how many best sellers to list (at most TRACKED) and the current time (epoch ms). Returns the report.
+    // Costs the same however many orders were recorded.
+    synchronized Report report(int topN, long now) {
+        List<Seller> best = new ArrayList<>();
+        for (int i = 0; i < Math.min(Math.max(topN, 0), topSize); i++) {
+            best.add(new Seller(top[i].game, top[i].units, top[i].revenue));
+        }
+        List<GenreSales> genres = new ArrayList<>();
+        for (int g = 0; g <= NONE; g++) {
+            if (g == NONE && genreOrders[g] == 0) break; // only listed when some game without a genre sold
+            genres.add(new GenreSales(g == NONE ? null : GENRES[g], genreOrders[g], genreUnits[g], genreRevenue[g]));
+        }
+        List<Rate> rates = new ArrayList<>();
+        for (Window w : windows) {
+            rates.add(w.rate(now));
+        }
+        return new Report(orders, units, revenue, List.copyOf(best), List.copyOf(genres), List.copyOf(rates));
+    }
+
+    // =======================
+    // SLIDING WINDOW
+    // =======================
+
+    /**
+     * Ring of `buckets` buckets of bucketMillis each, covering the newest bucket and the buckets - 1 before it.
+     * Bucket b lives in slot b mod buckets; moving on to a newer bucket clears the slots it reuses and takes
+     * them off the running sums, so reading a window is just reading the sums.
+     */
+    private static final class Window {
+        private final String label;
+        private final long bucketMillis;
+        private final int buckets;
+        private final long[] orders, units, revenue;
+        private long sumOrders, sumUnits, sumRevenue;
+        private long newest = Long.MIN_VALUE; // NEWEST BUCKET SO FAR
+
+        Window(String label, long bucketMillis, int buckets) {
+            this.label = label;
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+            this.orders = new long[buckets];
+            this.units = new long[buckets];
+            this.revenue = new long[buckets];
+        }
+
+        // Accepts one order's time, copies and total. An order older than the window (late clock) is left out.
+        void add(long time, int items, long total) {
+            long b = Math.floorDiv(time, bucketMillis);
+            advance(b);
+            if (b <= newest - buckets) return;
+            int slot = (int) Math.floorMod(b, (long) buckets);
+            orders[slot]++;
+            units[slot] += items;
+            revenue[slot] += total;
+            sumOrders++;
+            sumUnits += items;
+            sumRevenue += total;
+        }
+
+        Rate rate(long now) {
+            advance(Math.floorDiv(now, bucketMillis));
+            return new Rate(label, bucketMillis * buckets, sumOrders, sumUnits, sumRevenue);
+        }
+
+        // Moves the window on to bucket b (never back). Clears every slot that now holds a bucket too old for it.
+        private void advance(long b) {
+            if (b <= newest) return;
+            if (newest == Long.MIN_VALUE || b - newest >= buckets) {
+                Arrays.fill(orders, 0);
+                Arrays.fill(units, 0);
+                Arrays.fill(revenue, 0);
+                sumOrders = sumUnits = sumRevenue = 0;
+            } else {
+                for (long next = newest + 1; next <= b; next++) {
+                    int slot = (int) Math.floorMod(next, (long) buckets);
+                    sumOrders -= orders[slot];
+                    sumUnits -= units[slot];
+                    sumRevenue -= revenue[slot];
+                    orders[slot] = units[slot] = revenue[slot] = 0;
+                }
+            }
+            newest = b;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package services;
+
+import models.*;
+import java.util.List;
+
+/**
+ * Something a service did (or refused to do) that a user may want to see.
+ * The services never print: they hand these to their Listener, and the UI decides how (or whether) to show them
+ * (see ui.Renderer). A service whose listener is Listener.NONE does not even build the event.
+ */
+public sealed interface StoreEvent {
+
+    /**
+     * Receives a service's events. Called on the thread that ran the operation, after its locks are released.
+     */
+    @FunctionalInterface
+    interface Listener {
+        Listener NONE = e -> { }; // DROPS EVERYTHING (THE DEFAULT)
+
+        void on(StoreEvent event);
+    }
+
+    // =======================
+    // CATALOG
+    // =======================
+    record GameAdded(Videogame game) implements StoreEvent {}
+
+    record DuplicateGame(Videogame game) implements StoreEvent {}
+
+    record GameRemoved(Videogame game) implements StoreEvent {}
+
+    record GameNotListed(Videogame game) implements StoreEvent {}
+
+    record GameNotFound(int gameID) implements StoreEvent {}
+
+    record PriceUpdated(Videogame game, long price) implements StoreEvent {}
+
+    record StockUpdated(Videogame game, int stock) implements StoreEvent {}
+
+    record OwnerOnly(String action) implements StoreEvent {}
+
+    record GenreListing(Videogame.Genre genre, List<Videogame> games) implements StoreEvent {}
+
+    record GameDetail(Videogame game) implements StoreEvent {}
+
+    // =======================
+    // CART
+    // =======================
+    record AddedToCart(Customer customer, Videogame game) implements StoreEvent {}
+
+    record NotInCart(Customer customer) implements StoreEvent {}
+
+    record CartEmpty(Customer customer) implements StoreEvent {}
+
+    record CheckedOut(CartService.Receipt receipt) implements StoreEvent {}
+
+    // =======================
+    // USERS
+    // =======================
+    record LoggedIn(User user) implements StoreEvent {}
+
+    record LoggedOut(User user) implements StoreEvent {}
+
+    record PasswordChanged(User user) implements StoreEvent {}
+
+    record UserFound(User user) implements StoreEvent {}
+
+    record UserNotFound(int userID) implements StoreEvent {}
+}
@@ -0,0 +1,267 @@
+package services;
+
+import util.IntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Inverted full-text index over videogame titles and descriptions, ranked with BM25.
+ * Text is lower-cased, split into runs of letters and digits, stripped of English stop words and of a plural "s".
+ * Title words count TITLE_WEIGHT times, so a word in the title outranks the same word in a description.
+ *
+ * Every term has a posting list of (game ID, term frequency, document length) sorted by ID. A game's length only
+ * changes when it is re-indexed, which rewrites all of its postings anyway, so scoring never looks anything else up.
+ * A query walks the lists of its terms together, one document at a time, and keeps the best k in a heap. With MaxScore pruning, terms whose combined
+ * best possible score cannot lift a game into the current top k stop driving the walk and are only probed for
+ * the games the other terms found, so common words do not make a query score most of the catalog.
+ */
+class TextIndex {
+
+    // =======================
+    // FIELDS
+    // =======================
+    static final int TITLE_WEIGHT = 2;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "in", "is", "it", "its",
+            "of", "on", "or", "that", "the", "this", "to", "was", "with", "you", "your");
+
+    private final HashMap<String, Term> terms = new HashMap<>();
+    private final IntHashMap<Doc> docs = new IntHashMap<>(); // ID -> WHAT WAS INDEXED FOR IT (TO UNDO IT)
+    private long totalLength; // SUM OF ALL DOCUMENT LENGTHS, FOR THE AVERAGE
+
+    /**
+     * Posting list of one term: game IDs (sorted), how often the term occurs in each, and each game's length.
+     */
+    private static final class Term {
+        int[] ids = new int[4];
+        int[] tfs = new int[4];
+        int[] lens = new int[4];
+        int size;
+
+        void add(int id, int tf, int len) {
+            int pos = size == 0 || ids[size - 1] < id ? size : -Arrays.binarySearch(ids, 0, size, id) - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+                lens = Arrays.copyOf(lens, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(tfs, pos, tfs, pos + 1, size - pos);
+            System.arraycopy(lens, pos, lens, pos + 1, size - pos);
+            ids[pos] = id;
+            tfs[pos] = tf;
+            lens[pos] = len;
+            size++;
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(tfs, pos + 1, tfs, pos, size - pos - 1);
+            System.arraycopy(lens, pos + 1, lens, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    /**
+     * The distinct terms of one indexed game and its length in (weighted) tokens.
+     */
+    private record Doc(String[] terms, int length) {}
+
+    // =======================
+    // INDEX MAINTENANCE
+    // =======================
+
+    // Accepts game ID, title and description (either may be null). Indexes the game, replacing what was there for it.
+    void put(int id, String title, String description) {
+        remove(id);
+        HashMap<String, Integer> tf = new HashMap<>();
+        int length = count(title, TITLE_WEIGHT, tf) + count(description, 1, tf);
+        for (var e : tf.entrySet()) {
+            terms.computeIfAbsent(e.getKey(), t -> new Term()).add(id, e.getValue(), length);
+        }
+        docs.put(id, new Doc(tf.keySet().toArray(new String[0]), length));
+        totalLength += length;
+    }
+
+    // Accepts game ID. Drops it from every posting list.
+    void remove(int id) {
+        Doc doc = docs.remove(id);
+        if (doc == null) return;
+        for (String t : doc.terms()) {
+            Term term = terms.get(t);
+            term.remove(id);
+            if (term.size == 0) terms.remove(t);
+        }
+        totalLength -= doc.length();
+    }
+
+    int size() { return docs.size(); }
+
+    // =======================
+    // QUERY
+    // =======================
+
+    // Accepts raw query and k. Returns the IDs of the k best matching games by BM25, best first (ties by lower ID).
+    // A game matches if it contains at least one query term.
+    int[] search(String query, int k) {
+        List<String> qs = distinct(tokens(query));
+        List<Term> lists = new ArrayList<>();
+        List<Double> idfs = new ArrayList<>();
+        for (String t : qs) {
+            Term term = terms.get(t);
+            if (term == null || term.size == 0) continue;
+            lists.add(term);
+            idfs.add(idf(docs.size(), term.size));
+        }
+        if (lists.isEmpty() || k <= 0) return new int[0];
+        return new Walk(lists, idfs, k).run();
+    }
+
+    /**
+     * One document-at-a-time MaxScore walk over the query's posting lists.
+     */
+    private final class Walk {
+        private final Term[] lists;   // SORTED BY UPPER BOUND, SMALLEST FIRST
+        private final double[] idf;
+        private final double[] bound; // bound[i] = BEST POSSIBLE CONTRIBUTION OF LISTS 0..i TOGETHER
+        private final int[] pos;      // CURSOR INTO EACH LIST
+        private final int k;
+        private final double avgdl;
+        private final PriorityQueue<double[]> top; // (SCORE, ID), WORST ON TOP
+
+        Walk(List<Term> terms, List<Double> idfs, int k) {
+            int m = terms.size();
+            Integer[] order = new Integer[m];
+            for (int i = 0; i < m; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(idfs.get(a), idfs.get(b))); // upper bound is idf * (K1 + 1)
+            lists = new Term[m];
+            idf = new double[m];
+            bound = new double[m];
+            pos = new int[m];
+            for (int i = 0; i < m; i++) {
+                lists[i] = terms.get(order[i]);
+                idf[i] = idfs.get(order[i]);
+                bound[i] = (i > 0 ? bound[i - 1] : 0) + idf[i] * (K1 + 1);
+            }
+            this.k = k;
+            this.avgdl = docs.isEmpty() ? 1 : (double) totalLength / docs.size();
+            this.top = new PriorityQueue<>(k + 1, (a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(b[1], a[1]));
+        }
+
+        int[] run() {
+            int m = lists.length;
+            int essential = 0; // LISTS essential.. DRIVE THE WALK, 0..essential-1 ARE ONLY PROBED
+            while (true) {
+                int doc = Integer.MAX_VALUE;
+                for (int i = essential; i < m; i++) {
+                    if (pos[i] < lists[i].size) doc = Math.min(doc, lists[i].ids[pos[i]]);
+                }
+                if (doc == Integer.MAX_VALUE) break;
+
+                double score = 0;
+                for (int i = essential; i < m; i++) {
+                    Term t = lists[i];
+                    if (pos[i] < t.size && t.ids[pos[i]] == doc) {
+                        score += bm25(idf[i], t.tfs[pos[i]], t.lens[pos[i]], avgdl);
+                        pos[i]++;
+                    }
+                }
+                double threshold = threshold();
+                for (int i = essential - 1; i >= 0 && score + bound[i] > threshold; i--) {
+                    Term t = lists[i];
+                    int p = Arrays.binarySearch(t.ids, pos[i], t.size, doc);
+                    if (p >= 0) {
+                        score += bm25(idf[i], t.tfs[p], t.lens[p], avgdl);
+                        pos[i] = p + 1;
+                    } else {
+                        pos[i] = -p - 1;
+                    }
+                }
+                if (top.size() < k || score > threshold) {
+                    top.add(new double[]{score, doc});
+                    if (top.size() > k) top.poll();
+                    threshold = threshold();
+                    while (essential < m && bound[essential] <= threshold) essential++;
+                }
+            }
+            int[] out = new int[top.size()];
+            for (int i = out.length - 1; i >= 0; i--) {
+                out[i] = (int) top.poll()[1];
+            }
+            return out;
+        }
+
+        // Lowest score still in the top k (0 while it is not full): anything that cannot beat it is skipped.
+        private double threshold() {
+            return top.size() < k ? 0 : top.peek()[0];
+        }
+    }
+
+    // =======================
+    // HELPERS
+    // =======================
+
+    // Accepts raw text. Returns its terms in order, repeats included (lower-cased, stop words dropped, plural "s" stripped).
+    static List<String> tokens(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        String low = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= low.length(); i++) {
+            boolean inWord = i < low.length() && Character.isLetterOrDigit(low.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                String w = low.substring(start, i);
+                if (!STOP_WORDS.contains(w)) out.add(stem(w));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    // BM25 weight of one term in one document.
+    static double bm25(double idf, int tf, double dl, double avgdl) {
+        return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * dl / avgdl));
+    }
+
+    // Inverse document frequency as in Lucene's BM25 (never negative).
+    static double idf(int docCount, int docFreq) {
+        return Math.log(1 + (docCount - docFreq + 0.5) / (docFreq + 0.5));
+    }
+
+    // "games" -> "game", but not "chess", "status" or "this"-sized words.
+    private static String stem(String w) {
+        if (w.length() > 3 && w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us") && !w.endsWith("is")) {
+            return w.substring(0, w.length() - 1);
+        }
+        return w;
+    }
+
+    // Adds the weighted term counts of text to tf. Returns the weighted number of tokens.
+    private static int count(String text, int weight, HashMap<String, Integer> tf) {
+        List<String> tokens = tokens(text);
+        for (String t : tokens) {
+            tf.merge(t, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private static List<String> distinct(List<String> tokens) {
+        List<String> out = new ArrayList<>();
+        for (String t : tokens) {
+            if (!out.contains(t)) out.add(t);
+        }
+        return out;
+    }
+}
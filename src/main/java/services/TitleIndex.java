@@ -0,0 +1,433 @@
+package services;
+
+import util.IntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Trigram inverted index over lower-cased videogame titles.
+ * Every 3-character window of a title points to a sorted posting list of game IDs.
+ * A substring query intersects the posting lists of its own trigrams (smallest first)
+ * and only then runs the final contains() check on the few candidates left.
+ * Trigram keys are hashed into an int, so a collision can only add candidates, never lose matches.
+ *
+ * For typo-tolerant search the distinct words of all titles also sit in a BK-tree keyed by Levenshtein distance,
+ * each word with a posting list of the games using it. A fuzzy query looks every query word up in the tree
+ * (the triangle inequality prunes all subtrees that cannot be close enough, so only a small part of the vocabulary
+ * is compared) and keeps the games that have a close word for every query word. Words that are all digits are
+ * matched exactly and kept out of the tree. A BK-tree node cannot be unlinked on its own, so a word no title uses any
+ * more stays in the tree as a dead node with an empty posting list; once dead nodes pass half of the tree
+ * (and at least PRUNE_MIN_DEAD), the tree is rebuilt from the live words only.
+ */
+class TitleIndex {
+
+    // =======================
+    // FIELDS
+    // =======================
+    private final IntHashMap<Postings> grams = new IntHashMap<>();
+    private final IntHashMap<String> lowered = new IntHashMap<>(); // ID -> lower-cased title, used by the final check
+    private static final int PRUNE_MIN_DEAD = 64; // FEWER DEAD WORDS THAN THIS ARE NOT WORTH A TREE REBUILD
+    private HashMap<String, Word> words = new HashMap<>(); // EVERY TITLE WORD -> ITS BK-TREE NODE AND POSTINGS
+    private Word root; // BK-TREE ROOT, NULL WHILE THE TREE IS EMPTY
+    private int linked; // WORDS IN THE BK-TREE
+    private int dead; // OF THOSE, WORDS NO TITLE USES ANY MORE (EMPTY POSTINGS)
+
+    // =======================
+    // INDEX MAINTENANCE
+    // =======================
+
+    // Accepts game ID and title, indexes every trigram of the lower-cased title.
+    void add(int id, String title) {
+        String low = normalize(title);
+        lowered.put(id, low);
+        for (int i = 0; i + 3 <= low.length(); i++) {
+            int g = gram(low, i);
+            Postings p = grams.get(g);
+            if (p == null) {
+                p = new Postings();
+                grams.put(g, p);
+            }
+            p.add(id);
+        }
+        for (String w : words(low)) {
+            Word node = words.get(w);
+            if (node == null) {
+                node = new Word(w, new Postings());
+                words.put(w, node);
+                if (!isNumber(w)) link(node);
+            } else if (node.ids.size == 0) {
+                dead--; // a dead tree word is in use again
+            }
+            node.ids.add(id);
+        }
+    }
+
+    // Accepts game ID, drops it from every posting list it appears in.
+    void remove(int id) {
+        String low = lowered.remove(id);
+        if (low == null) return;
+        for (int i = 0; i + 3 <= low.length(); i++) {
+            int g = gram(low, i);
+            Postings p = grams.get(g);
+            if (p != null && p.remove(id) && p.size == 0) {
+                grams.remove(g);
+            }
+        }
+        for (String w : words(low)) {
+            Word node = words.get(w);
+            if (node != null && node.ids.remove(id) && node.ids.size == 0) {
+                if (isNumber(w)) words.remove(w); // not in the tree, so it can simply go
+                else dead++;
+            }
+        }
+        if (dead >= PRUNE_MIN_DEAD && dead * 2 > linked) prune();
+    }
+
+    // Accepts game ID and its new title, re-indexes the game.
+    void rename(int id, String newTitle) {
+        remove(id);
+        add(id, newTitle);
+    }
+
+    // =======================
+    // QUERY
+    // =======================
+
+    // Accepts raw query string. Returns the sorted IDs of all titles containing it (case-insensitive).
+    int[] search(String query) {
+        String q = normalize(query);
+        if (q.length() < 3) {
+            return scan(q); // too short to have a trigram, fall back to the cached lower-cased titles
+        }
+
+        int n = q.length() - 2;
+        Postings[] lists = new Postings[n];
+        for (int i = 0; i < n; i++) {
+            Postings p = grams.get(gram(q, i));
+            if (p == null) return new int[0]; // a trigram nobody has -> no title can match
+            lists[i] = p;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] cand = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int count = cand.length;
+        for (int i = 1; i < n && count > 0; i++) {
+            if (lists[i] == lists[i - 1]) continue; // repeated trigram in the query
+            count = intersect(cand, count, lists[i]);
+        }
+
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (lowered.get(cand[i]).contains(q)) {
+                cand[kept++] = cand[i];
+            }
+        }
+        return Arrays.copyOf(cand, kept);
+    }
+
+    // Accepts raw query, the largest edit distance allowed per word and a result limit.
+    // Returns up to limit IDs of titles that have, for every query word, a word within its allowed distance,
+    // best first: smallest total distance, then lowest ID. Short words get less slack, see allowedDistance().
+    int[] fuzzy(String query, int maxDistance, int limit) {
+        String[] terms = terms(query);
+        if (terms.length == 0 || limit <= 0) return new int[0];
+
+        long[] acc = null; // (ID << 32 | TOTAL DISTANCE SO FAR), SORTED BY ID
+        for (String term : terms) {
+            long[] hits = lookup(term, allowedDistance(term, maxDistance));
+            acc = acc == null ? hits : join(acc, hits);
+            if (acc.length == 0) return new int[0];
+        }
+        return best(acc, limit);
+    }
+
+    int size() { return lowered.size(); }
+
+    // Returns the number of words in the BK-tree, dead ones included.
+    int treeSize() { return linked; }
+
+    // =======================
+    // HELPERS
+    // =======================
+
+    static String normalize(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+
+    // Accepts a raw query. Returns its distinct lower-cased words.
+    static String[] terms(String query) {
+        return words(normalize(query)).toArray(new String[0]);
+    }
+
+    // Accepts a query word and the configured limit. Returns the edit distance allowed for it, never above the limit:
+    // none up to 2 letters, one up to 5, two up to 9, then one more per 4 letters (so "rpg" cannot match half the catalog).
+    static int allowedDistance(String term, int maxDistance) {
+        if (isNumber(term)) return 0;
+        return Math.min(maxDistance, term.length() <= 2 ? 0 : term.length() <= 5 ? 1 : 2 + (term.length() - 6) / 4);
+    }
+
+    // Accepts query words (from terms()), the configured limit and a title. Returns the title's total distance to
+    // the query as fuzzy() ranks it, or -1 if some query word has no close enough word in the title.
+    // This is the brute-force definition of fuzzy(), used while no index is available.
+    static int score(String[] terms, int maxDistance, String title) {
+        List<String> titleWords = words(normalize(title));
+        int total = 0;
+        for (String term : terms) {
+            int allowed = allowedDistance(term, maxDistance);
+            int best = -1;
+            for (String w : titleWords) {
+                int d = distance(term, w);
+                if (d <= allowed && (best < 0 || d < best)) best = d;
+            }
+            if (best < 0) return -1;
+            total += best;
+        }
+        return total;
+    }
+
+    // Levenshtein distance (insertions, deletions and substitutions each cost 1), two rolling rows.
+    static int distance(String a, String b) {
+        if (a.equals(b)) return 0;
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int sub = prev[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                cur[j] = Math.min(sub, Math.min(prev[j], cur[j - 1]) + 1);
+            }
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[b.length()];
+    }
+
+    // Splits a lower-cased title into its distinct words (runs of letters and digits), in order.
+    private static List<String> words(String low) {
+        LinkedHashSet<String> out = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= low.length(); i++) {
+            boolean inWord = i < low.length() && Character.isLetterOrDigit(low.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                out.add(low.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(out);
+    }
+
+    private static boolean isNumber(String w) {
+        for (int i = 0; i < w.length(); i++) {
+            if (!Character.isDigit(w.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // Hangs a new word under the BK-tree node at its distance from each node on the way down.
+    private void link(Word node) {
+        linked++;
+        if (root == null) {
+            root = node;
+            return;
+        }
+        Word at = root;
+        while (true) {
+            int d = distance(node.word, at.word);
+            Word next = at.child(d);
+            if (next == null) {
+                at.setChild(d, node);
+                return;
+            }
+            at = next;
+        }
+    }
+
+    // Rebuilds the BK-tree from the words still in use and forgets the dead ones. The live words get new nodes (sharing
+    // their posting lists), so the old tree is never relinked under a reader that is still walking it.
+    private void prune() {
+        HashMap<String, Word> live = new HashMap<>(words.size() * 2);
+        root = null;
+        linked = 0;
+        dead = 0;
+        for (Word w : words.values()) {
+            if (isNumber(w.word)) {
+                live.put(w.word, w);
+            } else if (w.ids.size > 0) {
+                Word copy = new Word(w.word, w.ids);
+                live.put(w.word, copy);
+                link(copy);
+            }
+        }
+        words = live;
+    }
+
+    // Returns (ID << 32 | distance) for every game with a word within maxDistance of term, sorted by ID, closest word kept.
+    private long[] lookup(String term, int maxDistance) {
+        List<Word> close = new ArrayList<>();
+        List<Integer> dists = new ArrayList<>();
+        if (maxDistance == 0 || isNumber(term)) {
+            Word w = words.get(term);
+            if (w != null) {
+                close.add(w);
+                dists.add(0);
+            }
+        } else if (root != null) {
+            ArrayList<Word> stack = new ArrayList<>();
+            stack.add(root);
+            while (!stack.isEmpty()) {
+                Word at = stack.remove(stack.size() - 1);
+                int d = distance(term, at.word);
+                if (d <= maxDistance && at.ids.size > 0) {
+                    close.add(at);
+                    dists.add(d);
+                }
+                // triangle inequality: only children at distance d-max .. d+max from this node can be within max of term
+                int hi = Math.min(d + maxDistance, at.children.length - 1);
+                for (int k = Math.max(1, d - maxDistance); k <= hi; k++) {
+                    if (at.children[k] != null) stack.add(at.children[k]);
+                }
+            }
+        }
+        int n = 0;
+        for (Word w : close) n += w.ids.size;
+        long[] out = new long[n];
+        n = 0;
+        for (int i = 0; i < close.size(); i++) {
+            Postings p = close.get(i).ids;
+            for (int j = 0; j < p.size; j++) {
+                out[n++] = (long) p.ids[j] << 32 | dists.get(i);
+            }
+        }
+        Arrays.sort(out); // by ID, then distance: the first entry of each ID is its closest word
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (kept == 0 || out[kept - 1] >>> 32 != out[i] >>> 32) out[kept++] = out[i];
+        }
+        return Arrays.copyOf(out, kept);
+    }
+
+    // Keeps the IDs present in both (ID-sorted) lists, adding up their distances.
+    private static long[] join(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            long ia = a[i] >>> 32, ib = b[j] >>> 32;
+            if (ia < ib) i++;
+            else if (ia > ib) j++;
+            else out[n++] = a[i++] + (b[j++] & 0xffffffffL);
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Returns the limit IDs with the smallest total distance (ties by ID), best first.
+    private static int[] best(long[] acc, int limit) {
+        long[] keys = new long[acc.length];
+        for (int i = 0; i < acc.length; i++) {
+            keys[i] = (acc[i] & 0xffffffffL) << 32 | (acc[i] >>> 32); // (distance, ID) sorts by rank
+        }
+        Arrays.sort(keys);
+        int[] ids = new int[Math.min(limit, keys.length)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (int) keys[i];
+        }
+        return ids;
+    }
+
+    private static int gram(String s, int i) {
+        return (s.charAt(i) * 31 + s.charAt(i + 1)) * 31 + s.charAt(i + 2);
+    }
+
+    // Keeps in cand only the IDs also present in p. Both are sorted, so each probe is a binary search from the last hit.
+    private static int intersect(int[] cand, int count, Postings p) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count && from < p.size; i++) {
+            int pos = Arrays.binarySearch(p.ids, from, p.size, cand[i]);
+            if (pos >= 0) {
+                cand[kept++] = cand[i];
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+        }
+        return kept;
+    }
+
+    private int[] scan(String q) {
+        int[] out = new int[8];
+        int n = 0;
+        for (int id : lowered.keys()) {
+            if (lowered.get(id).contains(q)) {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = id;
+            }
+        }
+        out = Arrays.copyOf(out, n);
+        Arrays.sort(out);
+        return out;
+    }
+
+    /**
+     * One distinct title word: its BK-tree children (indexed by their distance to this word) and the games using it.
+     */
+    private static final class Word {
+        final String word;
+        final Postings ids;
+        Word[] children = new Word[0];
+
+        Word(String word, Postings ids) {
+            this.word = word;
+            this.ids = ids;
+        }
+
+        Word child(int d) {
+            return d < children.length ? children[d] : null;
+        }
+
+        void setChild(int d, Word w) {
+            if (d >= children.length) children = Arrays.copyOf(children, d + 1); // readers keep seeing the old array or the new one
+            children[d] = w;
+        }
+    }
+
+    /**
+     * Sorted, growable posting list of game IDs for one trigram or word.
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == 0 || ids[size - 1] < id) { // IDs are handed out in increasing order, so appending is the common case
+                if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+                ids[size++] = id;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return; // trigram appears more than once in the same title
+            pos = -pos - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return false;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package services;
+
+import models.User;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk loader for the users file (format: username;password;role, one account per line).
+ * The file is memory-mapped, cut into chunks at line boundaries, the chunks are parsed in parallel,
+ * duplicates are dropped through a hash set (first occurrence wins, like the old line-by-line loader)
+ * and the survivors are handed to UserService in one bulkRegister() call.
+ */
+public final class UserBulkLoader {
+
+    // =======================
+    // FIELDS
+    // =======================
+    private static final long MIN_CHUNK = 1 << 20;       // below this, splitting costs more than it saves
+    private static final long MAX_CHUNK = 256L << 20;    // keeps every mapping far below the 2 GB MappedByteBuffer limit
+
+    private UserBulkLoader() {}
+
+    /**
+     * Outcome of one load: counters plus the time spent in every phase (nanoseconds).
+     */
+    public record Report(int loaded, int duplicates, int malformed, int unknownRoles, int chunks,
+                         long mapNanos, long parseNanos, long dedupeNanos, long insertNanos) {
+
+        public long totalNanos() {
+            return mapNanos + parseNanos + dedupeNanos + insertNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d users in %d ms (map %d ms, parse %d ms over %d chunks, dedupe %d ms, insert %d ms)"
+                            + " | duplicates skipped: %d, malformed lines: %d, unknown roles loaded as CUSTOMER: %d",
+                    loaded, ms(totalNanos()), ms(mapNanos), ms(parseNanos), chunks, ms(dedupeNanos), ms(insertNanos),
+                    duplicates, malformed, unknownRoles);
+        }
+
+        private static long ms(long nanos) {
+            return nanos / 1_000_000;
+        }
+    }
+
+    // =======================
+    // LOAD
+    // =======================
+
+    // Accepts path of the users file and the service to fill. Returns the load report. Throws IOException if the file cannot be read.
+    public static Report load(Path file, UserService userService) throws IOException {
+        long t0 = System.nanoTime();
+        List<MappedByteBuffer> chunks = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            long target = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / (parallelism * 4L)));
+            long start = 0;
+            while (start < size) {
+                long end = nextLineStart(ch, Math.min(size, start + target), size);
+                chunks.add(ch.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+        }
+
+        long t1 = System.nanoTime();
+        Parsed[] parsed = new Parsed[chunks.size()];
+        IntStream.range(0, parsed.length).parallel().forEach(i -> parsed[i] = parse(chunks.get(i)));
+
+        long t2 = System.nanoTime();
+        int total = 0;
+        int malformed = 0;
+        int unknownRoles = 0;
+        for (Parsed p : parsed) {
+            total += p.accounts.size();
+            malformed += p.malformed;
+            unknownRoles += p.unknownRoles;
+        }
+        Set<String> seen = new HashSet<>(total * 4 / 3 + 1);
+        List<UserService.Account> unique = new ArrayList<>(total);
+        for (Parsed p : parsed) { // chunks are in file order, so the first occurrence of a name is kept
+            for (UserService.Account a : p.accounts) {
+                String key = UserService.normalize(a.username());
+                if (seen.add(key) && !userService.isUsernameTaken(key)) {
+                    unique.add(a);
+                }
+            }
+        }
+
+        long t3 = System.nanoTime();
+        int loaded = userService.bulkRegister(unique);
+        long t4 = System.nanoTime();
+
+        return new Report(loaded, total - loaded, malformed, unknownRoles, parsed.length,
+                t1 - t0, t2 - t1, t3 - t2, t4 - t3);
+    }
+
+    // =======================
+    // HELPERS
+    // =======================
+
+    // Returns the offset just after the first '\n' at or after pos (or size if there is none).
+    private static long nextLineStart(FileChannel ch, long pos, long size) throws IOException {
+        if (pos >= size) return size;
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        while (pos < size) {
+            buf.clear();
+            int n = ch.read(buf, pos);
+            if (n <= 0) return size;
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    /**
+     * Accounts parsed from one chunk, in file order.
+     */
+    private static final class Parsed {
+        final List<UserService.Account> accounts = new ArrayList<>();
+        int malformed;
+        int unknownRoles;
+    }
+
+    // Parses every line of one chunk. Same rules as the old loader: trimmed fields, blank lines ignored,
+    // lines with fewer than 3 fields skipped, unknown roles loaded as CUSTOMER.
+    // Fields are decoded straight from the mapped bytes, no intermediate line string is built.
+    private static Parsed parse(MappedByteBuffer chunk) {
+        Parsed out = new Parsed();
+        byte[] scratch = new byte[256];
+        int[] semis = new int[3];
+        int limit = chunk.limit();
+        int lineStart = 0;
+        int found = 0;
+        for (int i = 0; i <= limit; i++) {
+            byte b = i < limit ? chunk.get(i) : (byte) '\n';
+            if (b == ';') {
+                if (found < semis.length) semis[found] = i;
+                found++;
+            } else if (b == '\n') {
+                scratch = parseLine(chunk, lineStart, i, semis, found, scratch, out);
+                lineStart = i + 1;
+                found = 0;
+            }
+        }
+        return out;
+    }
+
+    // Accepts one line [from, to) of the chunk and the offsets of its first separators. Returns the (possibly grown) scratch buffer.
+    private static byte[] parseLine(MappedByteBuffer chunk, int from, int to, int[] semis, int found,
+                                    byte[] scratch, Parsed out) {
+        if (to - from > scratch.length) scratch = new byte[Math.max(to - from, scratch.length * 2)];
+        chunk.get(from, scratch, 0, to - from);
+        int len = to - from;
+        if (isBlank(scratch, 0, len)) return scratch;
+        if (found < 2) {
+            out.malformed++;
+            return scratch;
+        }
+
+        int a = semis[0] - from;
+        int b = semis[1] - from;
+        int c = found > 2 ? semis[2] - from : len;
+        String username = field(scratch, 0, a);
+        String password = field(scratch, a + 1, b);
+        if (username.isEmpty() || password.isEmpty()) {
+            out.malformed++;
+            return scratch;
+        }
+
+        User.Role r;
+        if (matches(scratch, b + 1, c, "OWNER")) {
+            r = User.Role.OWNER;
+        } else {
+            r = User.Role.CUSTOMER;
+            if (!matches(scratch, b + 1, c, "CUSTOMER")) out.unknownRoles++;
+        }
+        out.accounts.add(new UserService.Account(username, password, r));
+        return scratch;
+    }
+
+    // Decodes bytes [from, to) as a trimmed UTF-8 string.
+    private static String field(byte[] bytes, int from, int to) {
+        while (from < to && (bytes[from] & 0xFF) <= ' ') from++;
+        while (to > from && (bytes[to - 1] & 0xFF) <= ' ') to--;
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    // Case-insensitive comparison of the trimmed ASCII bytes [from, to) with a role name, without decoding them.
+    private static boolean matches(byte[] bytes, int from, int to, String role) {
+        while (from < to && (bytes[from] & 0xFF) <= ' ') from++;
+        while (to > from && (bytes[to - 1] & 0xFF) <= ' ') to--;
+        if (to - from != role.length()) return false;
+        for (int i = 0; i < role.length(); i++) {
+            if (Character.toUpperCase((char) bytes[from + i]) != role.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((bytes[i] & 0xFF) > ' ') return false;
+        }
+        return true;
+    }
+}
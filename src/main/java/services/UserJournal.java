@@ -0,0 +1,278 @@
+package services;
+
+import models.User;
+import util.AtomicFiles;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Append-only journal of user changes, kept next to the users.txt snapshot.
+ * Registrations, password changes and removals are appended as one text record each
+ * (ADD;username;password;ROLE, PASS;username;password, DEL;username) instead of rewriting the whole file.
+ * A single background writer drains every record queued so far, writes them in one go and fsyncs once
+ * per batch (group commit). Every COMPACT_EVERY records the writer folds the journal into a fresh snapshot,
+ * written to a temp file and atomically moved over users.txt, then truncates the journal.
+ * Snapshot + replay() of the journal rebuilds the same users, passwords and roles in the same order.
+ * A record's future fails if it could not be written, or if the journal is closed (or its writer died) before it was.
+ * A batch that fails partway is cut back off the file, so no half-written record sits in front of the next one;
+ * if even that fails, the writer stops and every later record is refused.
+ */
+public class UserJournal implements AutoCloseable {
+
+    // =======================
+    // FIELDS
+    // =======================
+    private static final int COMPACT_EVERY = 10_000;
+    private static final Pending SHUTDOWN = new Pending(null, null);
+
+    private final Path snapshotFile;
+    private final Supplier<List<User>> users;
+    private final FileChannel channel;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private int sinceCompaction;
+    private boolean closed; // GUARDED BY this
+
+    private record Pending(String record, CompletableFuture<Void> done) {}
+
+    // =======================
+    // CONSTRUCTOR
+    // =======================
+
+    // Accepts the journal path, the snapshot path and where to read the live users from when compacting.
+    public UserJournal(Path journalFile, Path snapshotFile, Supplier<List<User>> users) throws IOException {
+        this(FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND),
+                snapshotFile, users);
+    }
+
+    // Accepts an already open journal channel (in append mode). Lets tests inject write failures.
+    UserJournal(FileChannel channel, Path snapshotFile, Supplier<List<User>> users) {
+        this.snapshotFile = snapshotFile;
+        this.users = users;
+        this.channel = channel;
+        this.writer = new Thread(this::writeLoop, "user-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // =======================
+    // RECORDS
+    // =======================
+
+    // Accepts a new user. Queues an ADD record, returns a future completed once it is on disk.
+    public CompletableFuture<Void> added(User u) {
+        return append("ADD;" + u.getUsername() + ";" + u.getPassword() + ";" + u.getRole().name());
+    }
+
+    // Accepts a user whose password just changed. Queues a PASS record.
+    public CompletableFuture<Void> passwordChanged(User u) {
+        return append("PASS;" + u.getUsername() + ";" + u.getPassword());
+    }
+
+    // Accepts a removed user. Queues a DEL record.
+    public CompletableFuture<Void> removed(User u) {
+        return append("DEL;" + u.getUsername());
+    }
+
+    private CompletableFuture<Void> append(String record) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                done.completeExceptionally(new IOException("User journal is closed."));
+            } else {
+                queue.add(new Pending(record, done));
+            }
+        }
+        return done;
+    }
+
+    // =======================
+    // REPLAY
+    // =======================
+
+    // Accepts journal path and the service already filled from the snapshot. Re-applies every complete record in order.
+    // A torn last record (crash mid-write) has no trailing newline and is ignored. Returns the number of records applied.
+    public static int replay(Path journalFile, UserService userService) throws IOException {
+        if (!Files.exists(journalFile)) return 0;
+        byte[] bytes = Files.readAllBytes(journalFile);
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') end--; // drop a partially written tail
+
+        int applied = 0;
+        try (BufferedReader reader = new BufferedReader(new StringReader(
+                new String(bytes, 0, end, StandardCharsets.UTF_8)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(";", -1);
+                switch (parts[0]) {
+                    case "ADD" -> {
+                        if (parts.length < 4 || userService.isUsernameTaken(parts[1])) continue;
+                        if ("OWNER".equals(parts[3])) userService.registerOwner(parts[1], parts[2]);
+                        else userService.register(parts[1], parts[2]);
+                    }
+                    case "PASS" -> {
+                        if (parts.length < 3 || !userService.resetPassword(parts[1], parts[2])) continue;
+                    }
+                    case "DEL" -> {
+                        if (parts.length < 2 || !userService.removeUser(parts[1])) continue;
+                    }
+                    default -> {
+                        continue;
+                    }
+                }
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    // =======================
+    // SNAPSHOT / COMPACTION
+    // =======================
+
+    // Accepts snapshot path and users. Writes users.txt format (username;password;role) to a temp file, fsyncs it
+    // and atomically moves it into place, so a crash leaves either the old or the new snapshot, never half of one.
+    public static void writeSnapshot(Path file, List<User> users) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             BufferedWriter writer = new BufferedWriter(Channels.newWriter(ch, StandardCharsets.UTF_8))) {
+            for (User u : users) {
+                //storing plaintext passwords. For production, hash them instead.
+                writer.write(String.join(";", u.getUsername(), u.getPassword(), u.getRole().name()));
+                writer.newLine();
+            }
+            writer.flush();
+            ch.force(true);
+        }
+        AtomicFiles.replace(tmp, file);
+    }
+
+    // Writes a fresh snapshot of the live users and empties the journal. Only called on the writer thread (or after it stopped).
+    private void compact() throws IOException {
+        writeSnapshot(snapshotFile, users.get());
+        channel.truncate(0);
+        channel.force(true);
+        sinceCompaction = 0;
+    }
+
+    // Flushes everything queued, compacts into the snapshot and closes the journal.
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (!closed) {
+                closed = true;
+                queue.add(SHUTDOWN);
+            }
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compact();
+        channel.close();
+    }
+
+    // =======================
+    // GROUP-COMMIT WRITER
+    // =======================
+
+    private void writeLoop() {
+        try {
+            drainLoop();
+        } finally {
+            failRemaining();
+        }
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+
+            StringBuilder sb = new StringBuilder();
+            for (Pending p : batch) {
+                if (p == SHUTDOWN) {
+                    running = false;
+                    continue;
+                }
+                sb.append(p.record).append('\n');
+            }
+            long mark = -1;
+            try {
+                mark = channel.size();
+                ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+                channel.force(false); // one fsync for the whole batch
+            } catch (IOException | RuntimeException e) {
+                for (Pending p : batch) {
+                    if (p != SHUTDOWN) p.done.completeExceptionally(e); // the caller reports it
+                }
+                if (!cutBack(mark)) return; // a torn record would stay in the file: stop for good
+                batch.clear();
+                continue;
+            }
+            for (Pending p : batch) {
+                if (p != SHUTDOWN) p.done.complete(null);
+            }
+            sinceCompaction += batch.size();
+            batch.clear();
+            if (running && sinceCompaction >= COMPACT_EVERY) {
+                try {
+                    compact();
+                } catch (IOException | RuntimeException e) {
+                    // the records are safe in the journal; compaction is retried after the next batch
+                }
+            }
+        }
+    }
+
+    // HELPER (NOT IN UML). Accepts the journal size before a failed batch (-1 if it was never read). Truncates whatever
+    // part of the batch reached the file. Returns false if that could not be done.
+    private boolean cutBack(long mark) {
+        if (mark < 0) return false;
+        try {
+            channel.truncate(mark);
+            channel.force(false);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    // HELPER (NOT IN UML). Once the writer stops, for whatever reason: refuses new records and fails every queued one,
+    // so nobody waits on a future that can no longer complete.
+    private void failRemaining() {
+        synchronized (this) {
+            closed = true;
+        }
+        IOException stopped = new IOException("User journal writer stopped.");
+        for (Pending p; (p = queue.poll()) != null; ) {
+            if (p != SHUTDOWN) p.done.completeExceptionally(stopped);
+        }
+    }
+}
@@ -1,21 +1,55 @@
 package services;
 
 import models.*;
+import exceptions.StoreExceptions;
+import util.IntHashMap;
+import util.MetricsRegistry;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * Service responsible for user registration, login, and lookup.
  * Includes internal stub model classes and a driver main().
+ *
+ * Usernames are unique case-insensitively. Login, registration and lookups go through
+ * a normalized-username hash index and an ID index, so none of them scan the user list.
+ * The service keeps no "current user": many sessions share it, so each caller (MainUI, HttpFrontEnd's
+ * session table, a load worker) holds the user login() returned and passes it back in.
+ * With a UserJournal attached, register(), changePass() and removeUser() return only once their record is on disk
+ * (waiting outside the lock, so concurrent changes still share one fsync) and throw UserException if it could not be written.
+ * Usernames and passwords containing ';' or a line break are refused, so they can never forge a journal or users.txt record.
  */
 public class UserService {
 
     // =======================
     // FIELDS
     // =======================
-    private final List<User> users = new ArrayList<>();
-    private User currentUser = null;
+    private static final MetricsRegistry.Timer REGISTER_TIMER = MetricsRegistry.DEFAULT.timer("UserService.register");
+    private static final MetricsRegistry.Timer REGISTER_OWNER_TIMER = MetricsRegistry.DEFAULT.timer("UserService.registerOwner");
+    private static final MetricsRegistry.Timer BULK_REGISTER_TIMER = MetricsRegistry.DEFAULT.timer("UserService.bulkRegister");
+    private static final MetricsRegistry.Timer LOGIN_TIMER = MetricsRegistry.DEFAULT.timer("UserService.login");
+    private static final MetricsRegistry.Timer LOGOUT_TIMER = MetricsRegistry.DEFAULT.timer("UserService.logout");
+    private static final MetricsRegistry.Timer REMOVE_USER_TIMER = MetricsRegistry.DEFAULT.timer("UserService.removeUser");
+    private static final MetricsRegistry.Timer CHANGE_PASS_TIMER = MetricsRegistry.DEFAULT.timer("UserService.changePass");
+    private static final MetricsRegistry.Timer FIND_USER_BY_ID_TIMER = MetricsRegistry.DEFAULT.timer("UserService.findUserByID");
+    private static final MetricsRegistry.Counter LOGIN_FAILED = MetricsRegistry.DEFAULT.counter("UserService.login.failed");
+    private final ConcurrentHashMap<String, User> byName = new ConcurrentHashMap<>(); // NORMALIZED USERNAME -> USER
+    private final IntHashMap<User> byId = new IntHashMap<>(); // ID INDEX
+    private final StampedLock lock = new StampedLock(); // GUARDS byId (byName is concurrent on its own)
+    private volatile UserJournal journal; // WHEN SET, EVERY CHANGE IS APPENDED TO IT
+    private volatile StoreEvent.Listener listener = StoreEvent.Listener.NONE; // WHO HEARS ABOUT LOGINS, LOGOUTS AND LOOKUPS
+
+    /**
+     * One account as stored on disk, before it becomes a User.
+     */
+    public record Account(String username, String password, User.Role role) {}
 
   /*
 
@@ -40,88 +74,294 @@ public class UserService {
     /*
      * Register always creates a CUSTOMER (per your description).
      */
+    // Throws UserException if the username is already taken (case-insensitive), or if it could not be journaled
+    // (then the account is not kept). Throws InvalidInputException if either contains ';' or a line break.
     public User register(String user, String pass) {
-        if (user == null || user.isBlank() || pass == null || pass.isBlank()) {
-            return null;
-        }
-        Customer newCustomer = new Customer(user, pass);
-        users.add(newCustomer);
+        long start = REGISTER_TIMER.start();
+        try {
+            if (user == null || user.isBlank() || pass == null || pass.isBlank()) {
+                return null;
+            }
+            checkCredentials(user, pass);
+            Customer newCustomer = new Customer(user, pass);
+            durable(add(newCustomer), () -> forget(newCustomer));
 
-        return newCustomer;
+            return newCustomer;
+        } finally {
+            REGISTER_TIMER.stop(start);
+        }
     }
 
     // [Skaraki] ChatGPT assisted. Registers Owners (used for save/load). Finalized Dec. 30th
     public User registerOwner(String username, String password) {
-        Owner owner = new Owner(username, password);
-        users.add(owner);
-        return owner;
+        long start = REGISTER_OWNER_TIMER.start();
+        try {
+            checkCredentials(username, password);
+            Owner owner = new Owner(username, password);
+            durable(add(owner), () -> forget(owner));
+            return owner;
+        } finally {
+            REGISTER_OWNER_TIMER.stop(start);
+        }
+    }
+
+    // Accepts parsed accounts (e.g. from users.txt) in file order. Registers every account whose name is still free,
+    // taking the write lock once for the whole batch. Returns the number of users added. ADDED POST-UML
+    public int bulkRegister(List<Account> accounts) {
+        long start = BULK_REGISTER_TIMER.start();
+        try {
+            List<User> added = new ArrayList<>(accounts.size());
+            for (Account a : accounts) {
+                User u = a.role() == User.Role.OWNER
+                        ? new Owner(a.username(), a.password())
+                        : new Customer(a.username(), a.password());
+                if (byName.putIfAbsent(normalize(u.getUsername()), u) == null) {
+                    added.add(u);
+                }
+            }
+            long stamp = lock.writeLock();
+            try {
+                byId.ensureCapacity(byId.size() + added.size());
+                for (User u : added) {
+                    byId.put(u.getID(), u);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            return added.size();
+        } finally {
+            BULK_REGISTER_TIMER.stop(start);
+        }
+    }
+
+    // Accepts username string. Returns whether it is already in use (case-insensitive). ADDED POST-UML
+    public boolean isUsernameTaken(String username) {
+        return username != null && byName.containsKey(normalize(username));
     }
 
     // [Skaraki] ChatGPT assisted. Accepts username and password strings, returns an Optional. Finalized Nov. 30th
 
     public Optional<User> login(String user, String pass) {
-        User found = findByUsername(user);
-        if (found == null) {
-            return Optional.empty();
-        }
+        long start = LOGIN_TIMER.start();
+        try {
+            User found = findByUsername(user);
+            if (found == null) {
+                LOGIN_FAILED.increment();
+                return Optional.empty();
+            }
 
-        if (!found.getPassword().equals(pass)) {
-            return Optional.empty();
-        }
+            if (!found.getPassword().equals(pass)) {
+                LOGIN_FAILED.increment();
+                return Optional.empty();
+            }
 
-        currentUser = found;
-        System.out.println("[OK] Successful login -> " + found.getUsername() +
-                " (" + found.getRole() + ")");
-        return Optional.of(found);
+            if (listener != StoreEvent.Listener.NONE) listener.on(new StoreEvent.LoggedIn(found));
+            return Optional.of(found);
+        } finally {
+            LOGIN_TIMER.stop(start);
+        }
     }
 
-    // [Skaraki] ChatGPT assisted. Logs currentUser out by setting them to null. Finalized Nov. 30th
+    // [Skaraki] ChatGPT assisted. Logs the given user out (the caller forgets its session). Finalized Nov. 30th
     public void logout(User user) {
-        if (currentUser == null) {
-            return;
-        }
-        if (currentUser != user) {
-            return;
+        long start = LOGOUT_TIMER.start();
+        try {
+            if (user == null) {
+                return;
+            }
+            if (listener != StoreEvent.Listener.NONE) listener.on(new StoreEvent.LoggedOut(user));
+        } finally {
+            LOGOUT_TIMER.stop(start);
         }
-        System.out.println("[OK] Successful logout -> " + currentUser.getUsername());
-        currentUser = null;
     }
 
     public void removeUser(User user) {
-        if (currentUser == user) currentUser = null;
+        long start = REMOVE_USER_TIMER.start();
+        try {
+            if (!byName.remove(normalize(user.getUsername()), user)) {
+                return;
+            }
+            CompletableFuture<Void> saved = null;
+            long stamp = lock.writeLock();
+            try {
+                byId.remove(user.getID());
+                UserJournal journal = this.journal;
+                if (journal != null) saved = journal.removed(user);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            durable(saved, () -> restore(user));
+        } finally {
+            REMOVE_USER_TIMER.stop(start);
+        }
+    }
+
+    // Accepts username string. Removes that user if present, returns whether someone was removed. Used by journal replay.
+    boolean removeUser(String username) {
+        User u = findByUsername(username);
+        if (u == null) return false;
+        removeUser(u);
+        return true;
     }
 
     /**
-     * // [Skaraki] ChatGPT assisted. Accepts oldPass and newPass strings. Changes password for the currently logged-in user. Finalized Nov. 30th
+     * // [Skaraki] ChatGPT assisted. Accepts the logged-in user, oldPass and newPass strings. Changes that user's password. Finalized Nov. 30th
      */
-    public void changePass(String oldPass, String newPass) {
-        System.out.println("[OK] Password changed for " + currentUser.getUsername());
+    public void changePass(User user, String oldPass, String newPass) {
+        long start = CHANGE_PASS_TIMER.start();
+        try {
+            if (user == null) {
+                throw new StoreExceptions.UserException("[X] You must be logged in to change your password.");
+            }
+            if (!user.checkPass(oldPass)) {
+                throw new StoreExceptions.UserException("[X] Old password is incorrect.");
+            }
+            checkCredentials(user.getUsername(), newPass);
+            String oldPassword = user.getPassword();
+            user.setPassword(newPass);
+            UserJournal journal = this.journal;
+            if (journal != null) durable(journal.passwordChanged(user), () -> user.setPassword(oldPassword));
+            listener.on(new StoreEvent.PasswordChanged(user));
+        } finally {
+            CHANGE_PASS_TIMER.stop(start);
+        }
+    }
+
+    // Accepts username and new password. Sets it without checking the old one, returns whether the user exists. Used by journal replay.
+    boolean resetPassword(String username, String newPass) {
+        User u = findByUsername(username);
+        if (u == null) return false;
+        u.setPassword(newPass);
+        return true;
+    }
+
+    // Accepts the journal that should receive every later registration, password change and removal (null detaches it). ADDED POST-UML
+    public void setJournal(UserJournal journal) {
+        this.journal = journal;
+    }
+
+    // Accepts where events should go (e.g. a ui.Renderer), or null / StoreEvent.Listener.NONE to drop them. ADDED POST-UML
+    public void setListener(StoreEvent.Listener listener) {
+        this.listener = listener == null ? StoreEvent.Listener.NONE : listener;
     }
 
     // [Skaraki] ChatGPT assisted.  Accepts int id, returns either the user associated with the ID or null. Finalized Nov. 30th.
     public User findUserByID(int id) {
-        for (User u : users) {
-            if (u.getID() == id) {
-                System.out.println("User found -> " + u);
-                return u;
-            }
+        long start = FIND_USER_BY_ID_TIMER.start();
+        try {
+            User u = lookupID(id);
+            listener.on(u != null ? new StoreEvent.UserFound(u) : new StoreEvent.UserNotFound(id));
+            return u;
+        } finally {
+            FIND_USER_BY_ID_TIMER.stop(start);
         }
-        System.out.println("No user with id " + id);
-        return null;
     }
 
     // [Skaraki] List of users. Finalized Nov. 30th
+    // Returns a copy in registration order (IDs are handed out in that order), safe to iterate while other sessions register.
+    // Built from the ID index, so removing a user never has to search a list.
     public List<User> getUsers() {
-        return users;
+        long stamp = lock.readLock();
+        try {
+            int[] ids = byId.keys();
+            Arrays.sort(ids);
+            List<User> out = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                out.add(byId.get(id));
+            }
+            return out;
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     // HELPER (NOT IN UML) [Skaraki] ChatGPT assisted. Accepts username, returns either the user associated with the username or null. Finalized Nov. 30th.
     private User findByUsername(String username) {
-        for (User u : users) {
-            if (u.getUsername().equalsIgnoreCase(username)) {
-                return u;
-            }
+        if (username == null) return null;
+        return byName.get(normalize(username));
+    }
+
+    // HELPER (NOT IN UML). Accepts int id. Optimistic read of the ID index, retried under the read lock if a write raced it.
+    private User lookupID(int id) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            User u = byId.get(id);
+            if (lock.validate(stamp)) return u;
+        }
+        stamp = lock.readLock();
+        try {
+            return byId.get(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // HELPER (NOT IN UML). Accepts new user, claims the username and adds it to the indexes. Throws UserException if the name is taken.
+    // Returns the journal write to wait for (null without a journal).
+    private CompletableFuture<Void> add(User user) {
+        if (byName.putIfAbsent(normalize(user.getUsername()), user) != null) {
+            throw new StoreExceptions.UserException("[X] Username already in use.");
         }
-        return null;
+        long stamp = lock.writeLock();
+        try {
+            byId.put(user.getID(), user);
+            UserJournal journal = this.journal;
+            return journal == null ? null : journal.added(user); // queued under the lock so the journal order matches the in-memory order
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // HELPER (NOT IN UML). Accepts a user just added. Takes it back out of the indexes without journaling anything.
+    private void forget(User user) {
+        byName.remove(normalize(user.getUsername()), user);
+        long stamp = lock.writeLock();
+        try {
+            byId.remove(user.getID());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // HELPER (NOT IN UML). Accepts a user just removed. Puts it back (unless its name was taken meanwhile) without journaling anything.
+    private void restore(User user) {
+        if (byName.putIfAbsent(normalize(user.getUsername()), user) != null) return;
+        long stamp = lock.writeLock();
+        try {
+            byId.put(user.getID(), user);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // HELPER (NOT IN UML). Accepts a journal write (null: nothing to wait for) and how to undo the change in memory.
+    // Waits until the record is on disk. If it could not be written, undoes the change and throws UserException.
+    private static void durable(CompletableFuture<Void> saved, Runnable undo) {
+        if (saved == null) return;
+        try {
+            saved.join();
+        } catch (CompletionException e) {
+            undo.run();
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            throw new StoreExceptions.UserException("[X] Unable to save user change: " + cause.getMessage());
+        }
+    }
+
+    // Accepts a username or password. Returns whether it can be stored: ';' separates the fields of users.txt and
+    // the journal records, and a line break would end the record early. ADDED POST-UML
+    public static boolean isStorable(String s) {
+        return s != null && s.indexOf(';') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0;
+    }
+
+    // HELPER (NOT IN UML). Throws InvalidInputException unless both can be stored (see isStorable).
+    private static void checkCredentials(String username, String password) {
+        if (!isStorable(username) || !isStorable(password)) {
+            throw new StoreExceptions.InvalidInputException("[X] Usernames and passwords cannot contain ';' or line breaks.");
+        }
+    }
+
+    // HELPER (NOT IN UML). Index key for a username: lower-cased, locale-independent.
+    static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,464 @@
+package ui;
+
+import models.*;
+import services.*;
+import exceptions.*;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded HTTP/JSON front-end for the store, built on the JDK's com.sun.net.httpserver.
+ * Serves many clients at once against one shared GameService/UserService/CartService.
+ *
+ * Requests take their parameters from the query string and/or an application/x-www-form-urlencoded body.
+ * Logging in returns a session token that later calls pass in the "X-Session" header. A session left unused for
+ * SESSION_IDLE_MINUTES expires and the client has to log in again.
+ *
+ *   GET  /games[?limit=N][&cursor=TOKEN]     one page (50 games by default): {"games":[...],"next":TOKEN or null}
+ *   GET  /games?q=TITLE[&genre=GENRE]        GET /games?genre=GENRE      GET /games/ID
+ *   GET  /games?q=TITLE&fuzzy=D[&limit=N]    typo-tolerant title search (D edits per word), closest first
+ *   GET  /games?text=WORDS[&limit=N]         full-text search over titles and descriptions, best match first
+ *   POST /register  username, password       POST /login  username, password      POST /logout
+ *   GET  /cart      POST /cart/add  id       POST /cart/remove  id                 POST /checkout
+ *   POST /admin/games  title, genre, description, price, stock
+ *   POST /admin/games/remove  id             POST /admin/price  id, price          POST /admin/stock  id, stock
+ */
+public class HttpFrontEnd {
+
+    private static final int DEFAULT_PAGE = 50;
+    static final int SESSION_IDLE_MINUTES = 30;
+    private static final long SESSION_IDLE_NANOS = SESSION_IDLE_MINUTES * 60_000_000_000L;
+
+    private final GameService gameService;
+    private final UserService userService;
+    private final CartService cartService;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // TOKEN -> LOGGED-IN USER
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime()); // WHEN EXPIRED SESSIONS WERE LAST DROPPED
+    private HttpServer server;
+    private ExecutorService executor;
+    private String threading; // WHAT perRequestExecutor() PICKED, FOR THE STARTUP MESSAGE
+
+    /**
+     * A logged-in user and when its token was last used (System.nanoTime()).
+     */
+    private static final class Session {
+        final User user;
+        volatile long lastUsed = System.nanoTime();
+
+        Session(User user) { this.user = user; }
+
+        boolean expired(long now) { return now - lastUsed > SESSION_IDLE_NANOS; }
+    }
+
+    public HttpFrontEnd(GameService gameService, UserService userService, CartService cartService) {
+        this.gameService = gameService;
+        this.userService = userService;
+        this.cartService = cartService;
+    }
+
+    /**
+     * Binds the server and starts serving.
+     *
+     * @param address where to listen (e.g. loopback:8080)
+     */
+    public void start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 4096);
+        executor = perRequestExecutor();
+        server.setExecutor(executor);
+
+        server.createContext("/games", wrap(this::games));
+        server.createContext("/register", wrap(this::register));
+        server.createContext("/login", wrap(this::login));
+        server.createContext("/logout", wrap(this::logout));
+        server.createContext("/cart", wrap(this::cart));
+        server.createContext("/checkout", wrap(this::checkout));
+        server.createContext("/admin", wrap(this::admin));
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to the given delay for in-flight ones and releases the threads.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * How requests are run: "virtual threads" or "N platform threads" (see perRequestExecutor()). Set by start().
+     */
+    public String threading() {
+        return threading;
+    }
+
+    /**
+     * One virtual thread per request when the JVM running the store has them (21+). The build targets release 17,
+     * where Executors.newVirtualThreadPerTaskExecutor() does not exist, so it is looked up reflectively; on a 17-20 JVM
+     * the lookup fails and requests run on a fixed pool of platform threads instead. threading() says which one is in use.
+     */
+    private ExecutorService perRequestExecutor() {
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            threading = "virtual threads";
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(64, Runtime.getRuntime().availableProcessors() * 16);
+            threading = threads + " platform threads";
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    // ========================
+    // HANDLERS
+    // ========================
+
+    /**
+     * Request handler that returns a JSON body or throws a store exception (mapped to an HTTP status by wrap()).
+     */
+    private interface Route {
+        String handle(HttpExchange ex, Map<String, String> params) throws IOException;
+    }
+
+    private String games(HttpExchange ex, Map<String, String> params) {
+        String rest = ex.getRequestURI().getPath().substring("/games".length());
+        if (rest.length() > 1) {
+            return gameJson(game(rest.substring(1)), true);
+        }
+        String q = params.get("q");
+        String genre = params.get("genre");
+        if ((q == null || q.isBlank()) && genre == null && params.get("text") == null) {
+            // no search: always one page, so a plain GET /games never serializes the whole catalog
+            String limit = params.get("limit");
+            GameService.Page page = gameService.listPage(params.get("cursor"),
+                    limit == null ? DEFAULT_PAGE : Integer.parseInt(limit));
+            StringBuilder sb = new StringBuilder(page.games().size() * 96 + 32).append("{\"games\":[");
+            for (int i = 0; i < page.games().size(); i++) {
+                if (i > 0) sb.append(',');
+                sb.append(gameJson(page.games().get(i), false));
+            }
+            return sb.append("],\"next\":").append(str(page.next())).append('}').toString();
+        }
+        List<Videogame> result;
+        if (genre != null) {
+            result = gameService.search(q, parseGenre(genre), 0, Long.MAX_VALUE);
+        } else if (params.get("text") != null) {
+            String limit = params.get("limit");
+            result = gameService.searchText(params.get("text"), limit == null ? DEFAULT_PAGE : Integer.parseInt(limit));
+        } else if (params.containsKey("fuzzy")) {
+            String limit = params.get("limit");
+            result = gameService.findByTitleFuzzy(q, Integer.parseInt(params.get("fuzzy")),
+                    limit == null ? DEFAULT_PAGE : Integer.parseInt(limit));
+        } else {
+            result = gameService.findByTitle(q);
+        }
+        StringBuilder sb = new StringBuilder(result.size() * 96 + 2).append('[');
+        for (int i = 0; i < result.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(gameJson(result.get(i), false));
+        }
+        return sb.append(']').toString();
+    }
+
+    private String register(HttpExchange ex, Map<String, String> params) {
+        requirePost(ex);
+        String username = required(params, "username");
+        String password = required(params, "password");
+        // checked here too: a decoded %3B or %0A must never get as far as the user journal
+        if (!UserService.isStorable(username) || !UserService.isStorable(password)) {
+            throw new StoreExceptions.InvalidInputException("Usernames and passwords cannot contain ';' or line breaks.");
+        }
+        User u = userService.register(username, password);
+        if (u == null) throw new StoreExceptions.InvalidInputException("Username and/or Password cannot be empty.");
+        return "{\"id\":" + u.getID() + ",\"username\":" + str(u.getUsername()) + "}";
+    }
+
+    private String login(HttpExchange ex, Map<String, String> params) {
+        requirePost(ex);
+        User u = userService.login(params.get("username"), params.get("password"))
+                .orElseThrow(() -> new Unauthorized("Incorrect username or password."));
+        String token = UUID.randomUUID().toString();
+        sweepSessions();
+        sessions.put(token, new Session(u));
+        return "{\"session\":" + str(token) + ",\"role\":" + str(u.getRole().name()) + "}";
+    }
+
+    private String logout(HttpExchange ex, Map<String, String> params) {
+        requirePost(ex);
+        String token = ex.getRequestHeaders().getFirst("X-Session");
+        if (token != null) sessions.remove(token);
+        return "{\"ok\":true}";
+    }
+
+    private String cart(HttpExchange ex, Map<String, String> params) {
+        Customer c = customer(ex);
+        String path = ex.getRequestURI().getPath();
+        if (path.equals("/cart/add")) {
+            requirePost(ex);
+            cartService.addCart(c, game(params.get("id")));
+        } else if (path.equals("/cart/remove")) {
+            requirePost(ex);
+            Videogame vg = game(params.get("id"));
+            if (!cartService.removeCart(c, vg)) throw new NotFound("Game not in cart (ID = " + vg.getID() + ").");
+        } else if (!path.equals("/cart")) {
+            throw new NotFound();
+        }
+        return cartJson(c);
+    }
+
+    private String checkout(HttpExchange ex, Map<String, String> params) {
+        requirePost(ex);
+        Customer c = customer(ex);
+        CartService.Receipt receipt = cartService.checkout(c);
+        if (receipt == null) throw new StoreExceptions.InvalidInputException("Cart is empty.");
+        return "{\"ok\":true,\"order\":" + receipt.orderId() + ",\"charged\":" + money(receipt.total()) + "}";
+    }
+
+    private String admin(HttpExchange ex, Map<String, String> params) {
+        requirePost(ex);
+        Owner owner = owner(ex);
+        switch (ex.getRequestURI().getPath()) {
+            case "/admin/games" -> {
+                String title = required(params, "title");
+                String desc = required(params, "description");
+                Videogame vg = new Videogame(title, parseGenre(required(params, "genre")), desc,
+                        Money.parse(required(params, "price")), Integer.parseInt(required(params, "stock")));
+                gameService.addGame(owner, vg);
+                return gameJson(vg, true);
+            }
+            case "/admin/games/remove" -> {
+                Videogame vg = game(params.get("id"));
+                gameService.removeGame(owner, vg);
+                return gameJson(vg, false);
+            }
+            case "/admin/price" -> {
+                Videogame vg = game(params.get("id"));
+                gameService.updatePrice(owner, vg.getID(), Money.parse(required(params, "price")));
+                return gameJson(vg, false);
+            }
+            case "/admin/stock" -> {
+                Videogame vg = game(params.get("id"));
+                gameService.updateStock(owner, vg.getID(), Integer.parseInt(required(params, "stock")));
+                return gameJson(vg, false);
+            }
+            default -> throw new NotFound();
+        }
+    }
+
+    // ========================
+    // PLUMBING
+    // ========================
+
+    /**
+     * Thrown for unknown paths or IDs (404).
+     */
+    private static final class NotFound extends RuntimeException {
+        NotFound() { super("Not found."); }
+        NotFound(String msg) { super(msg); }
+    }
+
+    /**
+     * Thrown for a failed login or a missing/expired session (401).
+     */
+    private static final class Unauthorized extends RuntimeException {
+        Unauthorized(String msg) { super(msg); }
+    }
+
+    /**
+     * Thrown for a wrong HTTP method (405).
+     */
+    private static final class BadMethod extends RuntimeException {
+        BadMethod() { super("Method not allowed."); }
+    }
+
+    /**
+     * Turns a Route into an HttpHandler: parses parameters, writes the JSON reply and maps exceptions to statuses.
+     */
+    private HttpHandler wrap(Route route) {
+        return ex -> {
+            int status = 200;
+            String body;
+            try {
+                body = route.handle(ex, params(ex));
+            } catch (NotFound e) {
+                status = 404;
+                body = error(e);
+            } catch (Unauthorized e) {
+                status = 401;
+                body = error(e);
+            } catch (BadMethod e) {
+                status = 405;
+                body = error(e);
+            } catch (StoreExceptions.PermissionException e) {
+                status = 403;
+                body = error(e);
+            } catch (StoreExceptions.UserException | StoreExceptions.OutOfStockException e) {
+                // the account request conflicts with the current state (e.g. the username is taken), or stock ran out
+                status = 409;
+                body = error(e);
+            } catch (StoreExceptions.InvalidInputException | IllegalArgumentException e) {
+                status = 400;
+                body = error(e);
+            } catch (RuntimeException e) {
+                status = 500;
+                body = error(e);
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.sendResponseHeaders(status, bytes.length);
+            try (OutputStream os = ex.getResponseBody()) {
+                os.write(bytes);
+            }
+        };
+    }
+
+    /**
+     * Collects query-string and form-body parameters (body wins on duplicates).
+     */
+    private static Map<String, String> params(HttpExchange ex) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(ex.getRequestURI().getRawQuery(), params);
+        if ("POST".equals(ex.getRequestMethod())) {
+            try (InputStream in = ex.getRequestBody()) {
+                parseForm(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String raw, Map<String, String> into) {
+        if (raw == null || raw.isEmpty()) return;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            into.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void requirePost(HttpExchange ex) {
+        if (!"POST".equals(ex.getRequestMethod())) throw new BadMethod();
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String v = params.get(name);
+        if (v == null || v.isBlank()) throw new StoreExceptions.InvalidInputException("Missing parameter '" + name + "'.");
+        return v;
+    }
+
+    private static Videogame.Genre parseGenre(String genre) {
+        return Videogame.Genre.valueOf(genre.trim().toUpperCase(Locale.ROOT).replace(" ", "_"));
+    }
+
+    private Videogame game(String id) {
+        if (id == null) throw new StoreExceptions.InvalidInputException("Missing parameter 'id'.");
+        Videogame vg = gameService.findByID(Integer.parseInt(id.trim()));
+        if (vg == null) throw new NotFound("Game not found (ID = " + id + ").");
+        return vg;
+    }
+
+    private User session(HttpExchange ex) {
+        String token = ex.getRequestHeaders().getFirst("X-Session");
+        Session s = token == null ? null : sessions.get(token);
+        if (s == null) throw new Unauthorized("Login required.");
+        long now = System.nanoTime();
+        if (s.expired(now)) {
+            sessions.remove(token, s);
+            throw new Unauthorized("Session expired, please log in again.");
+        }
+        s.lastUsed = now;
+        return s.user;
+    }
+
+    /**
+     * Drops every expired session, at most once a minute (called on login, so tokens nobody comes back for do not pile up).
+     */
+    private void sweepSessions() {
+        long now = System.nanoTime();
+        long last = lastSweep.get();
+        if (now - last < 60_000_000_000L || !lastSweep.compareAndSet(last, now)) return;
+        sessions.values().removeIf(s -> s.expired(now));
+    }
+
+    private Customer customer(HttpExchange ex) {
+        if (session(ex) instanceof Customer c) return c;
+        throw new StoreExceptions.PermissionException("Only customers can use a cart.");
+    }
+
+    private Owner owner(HttpExchange ex) {
+        if (session(ex) instanceof Owner o) return o;
+        throw new StoreExceptions.PermissionException("Owner privileges required.");
+    }
+
+    // ========================
+    // JSON
+    // ========================
+
+    private static String gameJson(Videogame vg, boolean withDescription) {
+        StringBuilder sb = new StringBuilder(128)
+                .append("{\"id\":").append(vg.getID())
+                .append(",\"title\":").append(str(vg.getTitle()))
+                .append(",\"genre\":").append(vg.getGenre() == null ? "null" : str(vg.getGenre().name()))
+                .append(",\"price\":").append(money(vg.getPriceCents()))
+                .append(",\"stock\":").append(vg.getStock());
+        if (withDescription) sb.append(",\"description\":").append(str(vg.getDescription()));
+        return sb.append('}').toString();
+    }
+
+    private String cartJson(Customer c) {
+        StringBuilder sb = new StringBuilder("{\"items\":[");
+        long total;
+        synchronized (c.getCart()) {
+            boolean first = true;
+            for (ShoppingCart.Line line : c.getCart().getLines()) {
+                if (!first) sb.append(',');
+                first = false;
+                sb.append("{\"game\":").append(gameJson(line.getGame(), false))
+                        .append(",\"quantity\":").append(line.getQuantity())
+                        .append(",\"unitPrice\":").append(money(line.getUnitPrice())).append('}');
+            }
+            total = c.getCart().getTotal();
+        }
+        return sb.append("],\"total\":").append(money(total)).append('}').toString();
+    }
+
+    private static String money(long cents) {
+        return Money.format(cents);
+    }
+
+    private static String error(RuntimeException e) {
+        String msg = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        return "{\"error\":" + str(msg.replace("[X] ", "")) + "}";
+    }
+
+    private static String str(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+                    else sb.append(ch);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,433 @@
+package ui;
+
+import models.*;
+import services.*;
+import util.LatencyHistogram;
+import exceptions.*;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Synthetic workload generator for sizing hardware: seeds a fresh store with N customers and M games,
+ * then runs shopper sessions on many concurrent workers against GameService, UserService and CartService
+ * and reports throughput and p50/p99/p99.9 latency per operation type.
+ *
+ * Session types (picked per session by weight, see "mix"):
+ *   browse    show the next page of the catalog (listPage, each worker pages through it and starts over at the
+ *             end), open 1-3 game details
+ *   search    title search for a random word, open the first hit; every 4th search is a genre listing instead
+ *   cart      login, add 1-4 games, check the total, take them back out, logout (an abandoned cart)
+ *   checkout  login, add 1-3 games, check the total, checkout, logout
+ *
+ * Options (key=value, all optional):
+ *   customers=10000 games=10000 workers=16 seconds=30 warmup=5 stock=1000 think=0 seed=42
+ *   mix=browse:40,search:30,cart:20,checkout:10 storage=heap (or columnar, see GameService.Storage)
+ *   ledger=DIR records every checkout in an OrderLedger in DIR, so checkout latency includes the group-commit fsync
+ *
+ * Workers are closed-loop (next session starts when the last one ends, after "think" ms). Each logs in only as its own
+ * customers (worker w as shopper w, w + workers, ...; customers must be at least workers), so no two workers ever share
+ * a cart, and keeps its own LatencyHistogram per operation, so recording never contends; they are merged only for the report.
+ * Results of the first "warmup" seconds are thrown away. Nothing is read from or written to users.txt or the catalog file
+ * (nor to the store's own order ledger: without "ledger" checkouts are not recorded).
+ */
+public class LoadGenerator {
+
+    private static final String[] WORDS = {
+            "star", "quest", "farm", "days", "puzzle", "master", "dragon", "knight",
+            "space", "racer", "shadow", "legend", "island", "empire", "ninja", "robot",
+            "castle", "galaxy", "zombie", "pirate", "wizard", "hero", "storm", "forest",
+            "city", "rally", "tactics", "dungeon", "ocean", "cyber", "frontier", "kingdom"
+    };
+    private static final int PAGE = 20;
+
+    /**
+     * One timed operation type in the report.
+     */
+    enum Op { LOGIN, BROWSE, DETAIL, SEARCH, GENRE, ADD_TO_CART, REMOVE_FROM_CART, TOTAL, CHECKOUT, LOGOUT }
+
+    /**
+     * Session types, in the order their weights appear in the mix.
+     */
+    enum Session { BROWSE, SEARCH, CART, CHECKOUT }
+
+    /**
+     * Run parameters, see the class comment for their meaning and defaults.
+     */
+    public record Config(int customers, int games, int workers, int seconds, int warmup,
+                         int stock, int thinkMs, long seed, int[] mix, GameService.Storage storage, Path ledger) {
+
+        /**
+         * Parses key=value options over the defaults.
+         *
+         * @throws StoreExceptions.InvalidInputException on an unknown key or a malformed value
+         */
+        public static Config parse(String[] args) {
+            int customers = 10_000, games = 10_000, workers = 16, seconds = 30, warmup = 5, stock = 1000, think = 0;
+            long seed = 42;
+            int[] mix = {40, 30, 20, 10};
+            GameService.Storage storage = GameService.Storage.HEAP;
+            Path ledger = null;
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) throw new StoreExceptions.InvalidInputException("Expected key=value, got '" + arg + "'.");
+                String key = arg.substring(0, eq).toLowerCase(Locale.ROOT);
+                String value = arg.substring(eq + 1);
+                try {
+                    switch (key) {
+                        case "customers" -> customers = Integer.parseInt(value);
+                        case "games" -> games = Integer.parseInt(value);
+                        case "workers" -> workers = Integer.parseInt(value);
+                        case "seconds" -> seconds = Integer.parseInt(value);
+                        case "warmup" -> warmup = Integer.parseInt(value);
+                        case "stock" -> stock = Integer.parseInt(value);
+                        case "think" -> think = Integer.parseInt(value);
+                        case "seed" -> seed = Long.parseLong(value);
+                        case "mix" -> mix = parseMix(value);
+                        case "storage" -> storage = parseStorage(value);
+                        case "ledger" -> ledger = Paths.get(value);
+                        default -> throw new StoreExceptions.InvalidInputException("Unknown option '" + key + "'.");
+                    }
+                } catch (NumberFormatException e) {
+                    throw new StoreExceptions.InvalidInputException("Bad value for " + key + ": '" + value + "'.");
+                }
+            }
+            if (customers < 1 || games < 1 || workers < 1 || seconds < 1 || warmup < 0 || stock < 0 || think < 0) {
+                throw new StoreExceptions.InvalidInputException("customers, games, workers and seconds must be positive.");
+            }
+            if (customers < workers) {
+                throw new StoreExceptions.InvalidInputException("customers must be at least workers (each worker has its own accounts).");
+            }
+            return new Config(customers, games, workers, seconds, warmup, stock, think, seed, mix, storage, ledger);
+        }
+
+        private static GameService.Storage parseStorage(String value) {
+            try {
+                return GameService.Storage.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new StoreExceptions.InvalidInputException("storage is heap or columnar, got '" + value + "'.");
+            }
+        }
+
+        private static int[] parseMix(String value) {
+            int[] mix = new int[Session.values().length];
+            for (String part : value.split(",")) {
+                String[] kv = part.split(":");
+                if (kv.length != 2) throw new StoreExceptions.InvalidInputException("mix entries look like browse:40.");
+                Session s;
+                try {
+                    s = Session.valueOf(kv[0].trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new StoreExceptions.InvalidInputException("Unknown session type '" + kv[0] + "' in mix.");
+                }
+                mix[s.ordinal()] = Integer.parseInt(kv[1].trim());
+                if (mix[s.ordinal()] < 0) throw new StoreExceptions.InvalidInputException("mix weights cannot be negative.");
+            }
+            if (Arrays.stream(mix).sum() == 0) throw new StoreExceptions.InvalidInputException("mix needs at least one positive weight.");
+            return mix;
+        }
+    }
+
+    private final Config config;
+    private final GameService gameService;
+    private final UserService userService = new UserService();
+    private final CartService cartService = new CartService();
+    private int[] gameIds; // IDS OF THE SEEDED GAMES, THE CATALOG DOES NOT CHANGE DURING A RUN
+
+    public LoadGenerator(Config config) {
+        this.config = config;
+        this.gameService = new GameService(config.storage());
+    }
+
+    /**
+     * Seeds the store, runs the workload for warmup + seconds and prints the report to System.out.
+     * The services have no listener attached, so the workers do no console I/O.
+     */
+    public void run() throws InterruptedException {
+        PrintStream console = System.out;
+        console.printf("Seeding %d customers and %d games (%s storage)...%n", config.customers(), config.games(),
+                config.storage().name().toLowerCase(Locale.ROOT));
+        seed();
+        OrderLedger ledger = null;
+        if (config.ledger() != null) {
+            try {
+                ledger = new OrderLedger(config.ledger());
+            } catch (IOException e) {
+                throw new StoreExceptions.InvalidInputException("Unable to open order ledger: " + e.getMessage());
+            }
+            cartService.setLedger(ledger);
+            console.printf("Recording checkouts in %s (after order #%d)%n", config.ledger(), ledger.lastOrderId());
+        }
+        console.printf("Running %d workers for %ds (+%ds warmup), mix browse:%d search:%d cart:%d checkout:%d%n",
+                config.workers(), config.seconds(), config.warmup(),
+                config.mix()[0], config.mix()[1], config.mix()[2], config.mix()[3]);
+
+        Worker[] workers = new Worker[config.workers()];
+        Thread[] threads = new Thread[workers.length];
+        CountDownLatch go = new CountDownLatch(1);
+        long measureFrom = System.nanoTime() + config.warmup() * 1_000_000_000L;
+        long until = measureFrom + config.seconds() * 1_000_000_000L;
+
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i, new SplittableRandom(config.seed() + i), go, measureFrom, until);
+            threads[i] = new Thread(workers[i], "load-" + i);
+            threads[i].start();
+        }
+        go.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        if (ledger != null) {
+            try {
+                ledger.close();
+            } catch (IOException e) {
+                console.println("[X] Unable to close order ledger: " + e.getMessage());
+            }
+        }
+        report(workers);
+    }
+
+    // =======================
+    // SEEDING
+    // =======================
+
+    private void seed() {
+        List<UserService.Account> accounts = new ArrayList<>(config.customers());
+        for (int i = 0; i < config.customers(); i++) {
+            accounts.add(new UserService.Account(username(i), password(i), User.Role.CUSTOMER));
+        }
+        userService.bulkRegister(accounts);
+
+        Videogame.Genre[] genres = Videogame.Genre.values();
+        SplittableRandom rnd = new SplittableRandom(config.seed());
+        List<Videogame> games = new ArrayList<>(config.games());
+        for (int i = 0; i < config.games(); i++) {
+            String title = capitalize(WORDS[rnd.nextInt(WORDS.length)]) + " " + capitalize(WORDS[rnd.nextInt(WORDS.length)]) + " " + (i + 1);
+            games.add(new Videogame(title, genres[rnd.nextInt(genres.length)], "Generated game #" + (i + 1),
+                    rnd.nextInt(499, 6999), config.stock()));
+        }
+        gameService.loadCatalog(games);
+        gameIds = games.stream().mapToInt(Videogame::getID).toArray();
+    }
+
+    private static String username(int i) { return "shopper" + i; }
+
+    private static String password(int i) { return "pw" + i; }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    // =======================
+    // WORKER
+    // =======================
+
+    /**
+     * One closed-loop shopper. Owns its histograms, error counters, catalog cursor and customer accounts;
+     * nothing is shared with other workers except the services themselves.
+     */
+    private final class Worker implements Runnable {
+        private final int index;
+        private final SplittableRandom rnd;
+        private final CountDownLatch go;
+        private final long measureFrom;
+        private final long until;
+        final LatencyHistogram[] latency = new LatencyHistogram[Op.values().length];
+        final long[] errors = new long[Op.values().length];
+        long sessions;
+        private final int totalWeight = Arrays.stream(config.mix()).sum();
+        private boolean measuring;
+        private String cursor; // NEXT CATALOG PAGE TO BROWSE, NULL FOR THE FIRST
+
+        Worker(int index, SplittableRandom rnd, CountDownLatch go, long measureFrom, long until) {
+            this.index = index;
+            this.rnd = rnd;
+            this.go = go;
+            this.measureFrom = measureFrom;
+            this.until = until;
+            for (int i = 0; i < latency.length; i++) {
+                latency[i] = new LatencyHistogram();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                go.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now;
+            while ((now = System.nanoTime()) < until) {
+                if (!measuring && now >= measureFrom) {
+                    for (LatencyHistogram h : latency) h.reset(); // drop the warmup
+                    Arrays.fill(errors, 0);
+                    sessions = 0;
+                    measuring = true;
+                }
+                switch (pickSession()) {
+                    case BROWSE -> browse();
+                    case SEARCH -> search();
+                    case CART -> cart();
+                    case CHECKOUT -> checkout();
+                }
+                sessions++;
+                if (config.thinkMs() > 0) {
+                    try {
+                        Thread.sleep(config.thinkMs());
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private Session pickSession() {
+            int[] mix = config.mix();
+            int r = rnd.nextInt(totalWeight);
+            for (Session s : Session.values()) {
+                r -= mix[s.ordinal()];
+                if (r < 0) return s;
+            }
+            return Session.BROWSE;
+        }
+
+        // ---- sessions ----
+
+        private void browse() {
+            long t = System.nanoTime();
+            GameService.Page page = gameService.listPage(cursor, PAGE);
+            for (Videogame vg : page.games()) {
+                vg.toString(); // render the page like the browse menu does
+            }
+            cursor = page.next(); // back to the first page after the last
+            t = lap(Op.BROWSE, t);
+            for (int i = rnd.nextInt(1, 4); i > 0; i--) {
+                gameService.findByID(randomGameId());
+                t = lap(Op.DETAIL, t);
+            }
+        }
+
+        private void search() {
+            long t = System.nanoTime();
+            if (rnd.nextInt(4) == 0) {
+                Videogame.Genre[] genres = Videogame.Genre.values();
+                gameService.findByGenre(genres[rnd.nextInt(genres.length)]);
+                lap(Op.GENRE, t);
+                return;
+            }
+            List<Videogame> hits = gameService.findByTitle(WORDS[rnd.nextInt(WORDS.length)]);
+            t = lap(Op.SEARCH, t);
+            if (!hits.isEmpty()) {
+                gameService.findByID(hits.get(0).getID());
+                lap(Op.DETAIL, t);
+            }
+        }
+
+        private void cart() {
+            Customer c = login();
+            if (c == null) return;
+            long t = System.nanoTime();
+            List<Videogame> added = new ArrayList<>();
+            for (int i = rnd.nextInt(1, 5); i > 0; i--) {
+                Videogame vg = gameService.findByID(randomGameId());
+                cartService.addCart(c, vg);
+                added.add(vg);
+                t = lap(Op.ADD_TO_CART, t);
+            }
+            cartService.total(c);
+            t = lap(Op.TOTAL, t);
+            for (Videogame vg : added) {
+                cartService.removeCart(c, vg);
+                t = lap(Op.REMOVE_FROM_CART, t);
+            }
+            logout(c);
+        }
+
+        private void checkout() {
+            Customer c = login();
+            if (c == null) return;
+            long t = System.nanoTime();
+            for (int i = rnd.nextInt(1, 4); i > 0; i--) {
+                cartService.addCart(c, gameService.findByID(randomGameId()));
+                t = lap(Op.ADD_TO_CART, t);
+            }
+            cartService.total(c);
+            t = lap(Op.TOTAL, t);
+            try {
+                cartService.checkout(c);
+                lap(Op.CHECKOUT, t);
+            } catch (StoreExceptions.OutOfStockException | StoreExceptions.LedgerException e) {
+                lap(Op.CHECKOUT, t);
+                errors[Op.CHECKOUT.ordinal()]++;
+                synchronized (c.getCart()) {
+                    c.getCart().clear(); // sold out (or not recorded), the shopper walks away
+                }
+            }
+            logout(c);
+        }
+
+        private Customer login() {
+            // one of this worker's own accounts: index, index + workers, index + 2 * workers, ...
+            int owned = (config.customers() - index + config.workers() - 1) / config.workers();
+            int i = index + config.workers() * rnd.nextInt(owned);
+            long t = System.nanoTime();
+            Optional<User> u = userService.login(username(i), password(i));
+            lap(Op.LOGIN, t);
+            if (u.isEmpty()) {
+                errors[Op.LOGIN.ordinal()]++;
+                return null;
+            }
+            return (Customer) u.get();
+        }
+
+        private void logout(User u) {
+            long t = System.nanoTime();
+            userService.logout(u);
+            lap(Op.LOGOUT, t);
+        }
+
+        // Records the time since start under op. Returns now, so consecutive operations can be chained.
+        private long lap(Op op, long start) {
+            long now = System.nanoTime();
+            latency[op.ordinal()].record(now - start);
+            return now;
+        }
+
+        private int randomGameId() {
+            return gameIds[rnd.nextInt(gameIds.length)];
+        }
+    }
+
+    // =======================
+    // REPORT
+    // =======================
+
+    private void report(Worker[] workers) {
+        double seconds = config.seconds();
+        long sessions = 0;
+        for (Worker w : workers) sessions += w.sessions;
+
+        System.out.printf("%n=== LOAD REPORT (%d workers, %ds measured) ===%n", workers.length, config.seconds());
+        System.out.printf("Sessions: %d (%.0f/s)%n", sessions, sessions / seconds);
+        System.out.printf("%-17s %10s %10s %7s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "ops/s", "errors", "mean(us)", "p50(us)", "p99(us)", "p99.9(us)", "max(us)");
+        for (Op op : Op.values()) {
+            LatencyHistogram h = new LatencyHistogram();
+            long errors = 0;
+            for (Worker w : workers) {
+                h.add(w.latency[op.ordinal()]);
+                errors += w.errors[op.ordinal()];
+            }
+            if (h.count() == 0) continue;
+            System.out.printf("%-17s %10d %10.0f %7d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    op.name().toLowerCase(Locale.ROOT), h.count(), h.count() / seconds, errors,
+                    h.mean() / 1e3, h.percentile(50) / 1e3, h.percentile(99) / 1e3,
+                    h.percentile(99.9) / 1e3, h.max() / 1e3);
+        }
+    }
+}
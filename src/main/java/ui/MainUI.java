@@ -9,30 +9,128 @@ package ui;
 import models.*;
 import services.*;
 import exceptions.*;
+import util.MetricsRegistry;
 
 import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.nio.file.*;
 import java.util.*;
 
 
 public class MainUI {
 
-    private final GameService gameService = new GameService();
+    private final GameService gameService;
     private final UserService userService = new UserService();
     private final CartService cartService = new CartService();
     private User currentUser = null;
 
     private final Scanner scanner = new Scanner(System.in);
     private static final String USER_FILE = "users.txt";
+    private static final String USER_JOURNAL = "users.journal";
+    private static final String CATALOG_FILE = "catalog.bin";
+    private static final String METRICS_FILE = "metrics.log";
+    private static final String LEDGER_DIR = "orders"; // ONE RECORD PER CHECKOUT (SEE OrderLedger)
+    private static final int PAGE_SIZE = 20;
+    private static final int LOW_STOCK_THRESHOLD = 5; // DEFAULT FOR THE OWNER'S LOW STOCK REPORT
+    static final int FUZZY_DISTANCE = 2; // TYPOS TOLERATED PER WORD BY "~" SEARCHES (SHORT WORDS GET FEWER)
+    static final int FUZZY_RESULTS = 10;
+    static final int TEXT_RESULTS = 10; // BEST MATCHES SHOWN BY "+" (FULL-TEXT) SEARCHES
+    private static final int TOP_SELLERS = 10; // BEST SELLERS SHOWN BY THE SALES REPORT
+    private UserJournal journal = null;
+    private OrderLedger ledger = null;
 
     /**
      * Program entry point 
      * Chat GPT assisted Kaloudis last edited 2/12.
+     * With "--script FILE" (or "--script -" for stdin) the store runs headless through ScriptDriver instead of the menus.
+     * With "--http PORT" it serves the HTTP/JSON front-end on loopback instead.
+     * With "--load [key=value ...]" it runs LoadGenerator against a freshly seeded store and prints latency percentiles.
+     * A leading "--columnar" keeps the catalog in off-heap columns (GameService.Storage.COLUMNAR) in any of these modes
+     * (for --load, use its storage=columnar option instead).
      */
      
      
     public static void main(String[] args) {
-        new MainUI().start();
+        GameService.Storage storage = GameService.Storage.HEAP;
+        if (args.length >= 1 && "--columnar".equals(args[0])) {
+            storage = GameService.Storage.COLUMNAR;
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        if (args.length >= 2 && "--script".equals(args[0])) {
+            new MainUI(storage).runScript(args[1]);
+            return;
+        }
+        if (args.length >= 2 && "--http".equals(args[0])) {
+            new MainUI(storage).serveHttp(Integer.parseInt(args[1]));
+            return;
+        }
+        if (args.length >= 1 && "--load".equals(args[0])) {
+            runLoad(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        new MainUI(storage).start();
+    }
+
+    private MainUI(GameService.Storage storage) {
+        this.gameService = new GameService(storage);
+    }
+
+    /**
+     * Server mode: loads users, journal, catalog and order ledger like start() does, then serves HttpFrontEnd on 127.0.0.1:port.
+     * Users and catalog are saved when the JVM shuts down (e.g. Ctrl+C).
+     */
+    private void serveHttp(int port) {
+        loadUsers();
+        openJournal();
+        loadCatalog();
+        openLedger();
+        HttpFrontEnd http = new HttpFrontEnd(gameService, userService, cartService);
+        try {
+            http.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            System.out.println("[X] Unable to start HTTP server: " + e.getMessage());
+            closeLedger();
+            saveUsers();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            http.stop(1);
+            closeLedger();
+            saveUsers();
+            saveCatalog();
+            System.out.println("Goodbye!");
+        }));
+        System.out.println("[OK] Serving on http://127.0.0.1:" + port + "/ with " + http.threading() + " (Ctrl+C to stop)");
+    }
+
+    /**
+     * Load-test mode: seeds its own store (persisted files are not touched) and runs the synthetic workload.
+     */
+    private static void runLoad(String[] options) {
+        try {
+            new LoadGenerator(LoadGenerator.Config.parse(options)).run();
+        } catch (StoreExceptions.InvalidInputException e) {
+            System.out.println("[X] " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Headless mode: loads the persisted users and catalog, runs the command script against them and reports throughput.
+     * Nothing is written back, so batch and load runs leave users.txt and the catalog untouched.
+     */
+    private void runScript(String source) {
+        loadUsers();
+        loadCatalog();
+        try (Reader in = "-".equals(source)
+                ? new InputStreamReader(System.in)
+                : Files.newBufferedReader(Paths.get(source))) {
+            new ScriptDriver(gameService, userService, cartService).run(in);
+        } catch (IOException e) {
+            System.out.println("[X] Unable to run script: " + e.getMessage());
+        }
     }
 
     /**
@@ -42,7 +140,11 @@ public class MainUI {
      
      
     private void start() {
+        attach(Renderer.console());
         loadUsers();
+        openJournal();
+        loadCatalog();
+        openLedger();
         System.out.println("=== Welcome to S2K's Videogame Store ===");
 
         boolean exit = false;
@@ -89,7 +191,12 @@ public class MainUI {
         /* Save users on exit to persist latest state
         Chat GPT assisted Kaloudis last edited 2/12. */
         
+        closeLedger();
         saveUsers();
+        saveCatalog();
+        if (MetricsRegistry.DEFAULT.stopDump()) {
+            MetricsRegistry.DEFAULT.dump(Paths.get(METRICS_FILE)); // last interval
+        }
         System.out.println("Goodbye!");
     }
 
@@ -118,19 +225,73 @@ public class MainUI {
     }
 
     /**
-     * Shows available games, supports simple search and selecting one to view details. 
+     * Shows available games one page of PAGE_SIZE at a time, supports simple search and selecting one to view details. 
      * Chat GPT assisted Kaloudis last edited 2/12
      */
      
      
     private void showGamesMenu() {
-        System.out.println("\n--- AVAILABLE GAMES ---");
-        gameService.listAll().forEach(System.out::println);
+        String cursor = null;
+        int pageNo = 1;
+        boolean byPrice = false;
+        while (true) {
+            GameService.Page page = byPrice
+                    ? gameService.listByPrice(cursor, PAGE_SIZE)
+                    : gameService.listPage(cursor, PAGE_SIZE);
+            System.out.println("\n--- AVAILABLE GAMES (" + (byPrice ? "cheapest first, " : "") + "page " + pageNo + ") ---");
+            page.games().forEach(System.out::println);
+            String more = readString(page.next() == null
+                    ? (byPrice ? "Press Enter to continue: " : "[C]heapest first, or press Enter to continue: ")
+                    : (byPrice ? "[N]ext page, or press Enter to continue: " : "[N]ext page, [C]heapest first, or press Enter to continue: "));
+            if (more.equalsIgnoreCase("n") && page.next() != null) {
+                cursor = page.next();
+                pageNo++;
+            } else if (more.equalsIgnoreCase("c") && !byPrice) {
+                byPrice = true;
+                cursor = null;
+                pageNo = 1;
+            } else {
+                break;
+            }
+        }
 
-        String q = readString("\nSearch by title (leave empty to skip): ");
-        if (!q.isBlank()) {
+        String q = readString("\nSearch by title (start with ~ to allow typos, + to search descriptions too, leave empty to skip): ");
+        if (q.startsWith("+")) {
+            System.out.println("--- BEST MATCHES ---");
+            List<Videogame> found = gameService.searchText(q.substring(1), TEXT_RESULTS);
+            found.forEach(System.out::println);
+            if (found.isEmpty()) System.out.println("[X] No game mentions that.");
+        } else if (q.startsWith("~")) {
+            System.out.println("--- CLOSEST TITLES ---");
+            List<Videogame> found = gameService.findByTitleFuzzy(q.substring(1), FUZZY_DISTANCE, FUZZY_RESULTS);
+            found.forEach(System.out::println);
+            if (found.isEmpty()) System.out.println("[X] No titles close to that.");
+        } else if (!q.isBlank()) {
             System.out.println("--- SEARCH RESULTS ---");
-            gameService.findByTitle(q).forEach(System.out::println);
+            List<Videogame> found = gameService.findByTitle(q);
+            found.forEach(System.out::println);
+            if (found.isEmpty()) {
+                List<Videogame> close = gameService.findByTitleFuzzy(q, FUZZY_DISTANCE, FUZZY_RESULTS);
+                if (!close.isEmpty()) {
+                    System.out.println("No exact matches. Did you mean:");
+                    close.forEach(System.out::println);
+                }
+            }
+        }
+
+        String min = readString("Filter by price, minimum (leave empty to skip): ");
+        if (!min.isBlank()) {
+            try {
+                long lo = Money.parse(min);
+                String max = readString("Maximum (leave empty for no limit): ");
+                long hi = max.isBlank() ? Long.MAX_VALUE : Money.parse(max);
+                System.out.println("--- GAMES BY PRICE ---");
+                List<Videogame> found = gameService.findByPriceRange(lo, hi);
+                found.forEach(System.out::println);
+                if (found.isEmpty()) System.out.println("[X] No games in that price range.");
+            } catch (NumberFormatException e) {
+                System.out.println("[X] Invalid price (use e.g. 19.99).");
+            }
         }
 
         System.out.print("\nTo view a specific game, provide the ID (leave empty to skip): ");
@@ -195,7 +356,7 @@ public class MainUI {
 
     /**
      * Register a new customer account.
-     * On success, automatically persists users to file.
+     * On success, the new account is appended to the user journal (no full rewrite of the users file).
      * Chat GPT assisted Kaloudis last edited 2/12
      */
      
@@ -209,17 +370,7 @@ public class MainUI {
                 if (p.isBlank() || u.isBlank()) {
                     throw new StoreExceptions.InvalidInputException("[X] Username and/or Password cannot be empty.");
                 }
-                for (User user : userService.getUsers()) {
-                    if (user.getUsername().equals(u)) {
-                        throw new StoreExceptions.UserException("[X] Username already in use.");
-                    }
-                }
-                User newUser = userService.register(u, p);
-                /* Persist immediately after registration
-                Chat GPT assisted Kaloudis last edited 2/12 **/
-                
-                
-                saveUsers();
+                User newUser = userService.register(u, p); // journaled by UserService
                 System.out.println("[OK] Successfully registered as: " + newUser.getUsername());
                 break;
             } catch (StoreExceptions.InvalidInputException | StoreExceptions.UserException e) {
@@ -283,20 +434,21 @@ public class MainUI {
             switch (choice) {
                 case 1 -> {
                     System.out.println(c.getCart());
-                    System.out.printf("Total: %.2f%n", cartService.total(c));
+                    System.out.println("Total: " + Money.format(cartService.total(c)));
                 }
                 case 2 -> {
                     int id = readInt("Enter game ID to remove: ");
                     gameService.optionalID(id).ifPresentOrElse(
                             g -> {
-                                cartService.removeCart(c, g);
-                                System.out.println("[OK] Removed from cart: " + g.getTitle());
+                                if (cartService.removeCart(c, g)) {
+                                    System.out.println("[OK] Removed from cart: " + g.getTitle());
+                                }
                             },
                             () -> System.out.println("[X] Game not found.")
                     );
                 }
                 case 3 -> {
-                    if (c.getCart().getItems().isEmpty()) {
+                    if (c.getCart().isEmpty()) {
                         System.out.println("Cart is empty.");
                         break;
                     }
@@ -340,6 +492,8 @@ public class MainUI {
                         cartService.checkout(c);
                     } catch (StoreExceptions.OutOfStockException e) {
                         System.out.println("[X] Checkout failed: game is out of stock!");
+                    } catch (StoreExceptions.LedgerException e) {
+                        System.out.println(e.getMessage());
                     }
                 }
                 case 0 -> back = true;
@@ -365,6 +519,10 @@ public class MainUI {
             System.out.println("2) Remove game");
             System.out.println("3) Update price");
             System.out.println("4) Update stock");
+            System.out.println("5) Store statistics");
+            System.out.println("6) Low stock report");
+            System.out.println("7) Inventory report");
+            System.out.println("8) Sales report");
             System.out.println("0) Back");
 
             int choice = readInt("Choose: ");
@@ -375,6 +533,10 @@ public class MainUI {
                     case 2 -> defineGameRemove(owner);
                     case 3 -> updatePrice(owner);
                     case 4 -> updateStock(owner);
+                    case 5 -> storeStatistics();
+                    case 6 -> lowStockReport(owner);
+                    case 7 -> inventoryReport(owner);
+                    case 8 -> salesReport(owner);
                     case 0 -> back = true;
                     default -> System.out.println("Invalid option.");
                 }
@@ -425,13 +587,13 @@ public class MainUI {
                 System.out.println(e.getMessage());
             }
         }
-        double price = readDouble("Price: ");
+        long price = readPrice("Price: ");
         int stock = readInt("Initial stock: ");
 
         Videogame game = new Videogame(title, genre, desc, price, stock);
-        gameService.addGame(owner, game);
-
-        System.out.println("[OK] Added game: " + game.getTitle());
+        if (gameService.addGame(owner, game)) {
+            System.out.println("[OK] Added game: " + game.getTitle());
+        }
     }
 
     /**
@@ -447,8 +609,9 @@ public class MainUI {
             System.out.println("[X] Game not found.");
             return;
         }
-        gameService.removeGame(owner, toRemove);
-        System.out.println("[OK] Removed game: " + toRemove.getTitle());
+        if (gameService.removeGame(owner, toRemove)) {
+            System.out.println("[OK] Removed game: " + toRemove.getTitle());
+        }
     }
 
     /**
@@ -459,9 +622,10 @@ public class MainUI {
      
     private void updatePrice(Owner owner) {
         int id = readInt("Game ID: ");
-        double p = readDouble("New price: ");
-        gameService.updatePrice(owner, id, p);
-        System.out.println("[OK] Price updated.");
+        long p = readPrice("New price: ");
+        if (gameService.updatePrice(owner, id, p)) {
+            System.out.println("[OK] Price updated.");
+        }
     }
 
     /**
@@ -471,8 +635,131 @@ public class MainUI {
     private void updateStock(Owner owner) {
         int id = readInt("Game ID: ");
         int stock = readInt("New stock: ");
-        gameService.updateStock(owner, id, stock);
-        System.out.println("[OK] Stock updated.");
+        if (gameService.updateStock(owner, id, stock)) {
+            System.out.println("[OK] Stock updated.");
+        }
+    }
+
+    /**
+     * Lists every game with fewer copies left than a threshold the owner picks, lowest stock first.
+     */
+    private void lowStockReport(Owner owner) {
+        String t = readString("Show games with stock below (Enter = " + LOW_STOCK_THRESHOLD + "): ");
+        int threshold;
+        try {
+            threshold = t.isBlank() ? LOW_STOCK_THRESHOLD : Integer.parseInt(t);
+        } catch (NumberFormatException e) {
+            System.out.println("[X] Invalid number.");
+            return;
+        }
+        List<Videogame> low = gameService.lowStock(owner, threshold);
+        System.out.println("\n--- LOW STOCK (below " + threshold + ") ---");
+        low.forEach(System.out::println);
+        System.out.println(low.isEmpty() ? "[OK] Every game has at least " + threshold + " in stock." : low.size() + " game(s) to restock.");
+    }
+
+    /**
+     * Shows games, copies, value at list price, average price and sold-out count per genre,
+     * then how many games fall in each price band as a bar chart.
+     */
+    private void inventoryReport(Owner owner) {
+        long t0 = System.nanoTime();
+        InventoryReport report = gameService.inventoryReport(owner);
+        long micros = (System.nanoTime() - t0) / 1_000;
+        System.out.println("\n--- INVENTORY REPORT ---");
+        System.out.printf("%-12s %9s %12s %16s %10s %12s%n", "Genre", "Games", "Copies", "Value", "Avg price", "Out of stock");
+        for (InventoryReport.Line line : report.genres()) {
+            printInventoryLine(line.genre() == null ? "(none)" : line.genre().name(), line);
+        }
+        printInventoryLine("TOTAL", report.total());
+
+        System.out.println("\nGames per price band:");
+        List<Long> edges = report.priceEdges();
+        List<Integer> counts = report.total().histogram();
+        int most = Math.max(1, Collections.max(counts));
+        for (int b = 0; b < edges.size(); b++) {
+            String band = b + 1 < edges.size()
+                    ? "$" + Money.format(edges.get(b)) + " - " + Money.format(edges.get(b + 1) - 1)
+                    : "$" + Money.format(edges.get(b)) + " and up";
+            System.out.printf("%-18s %9d %s%n", band, counts.get(b), "#".repeat((int) (40L * counts.get(b) / most)));
+        }
+        System.out.printf("(computed in %.1f ms)%n", micros / 1000.0);
+    }
+
+    /**
+     * Prints one row of the inventory table.
+     */
+    private static void printInventoryLine(String label, InventoryReport.Line line) {
+        System.out.printf("%-12s %9d %12d %16s %10s %12d%n", label, line.games(), line.units(),
+                "$" + Money.format(line.value()), "$" + Money.format(line.averagePrice()), line.outOfStock());
+    }
+
+    /**
+     * Shows what has sold since startup: the best sellers, orders, copies and revenue per genre,
+     * and orders and revenue over the last minute, hour and day.
+     */
+    private void salesReport(Owner owner) {
+        SalesStats.Report report = cartService.salesReport(owner, TOP_SELLERS);
+        System.out.println("\n--- SALES REPORT (since startup) ---");
+        System.out.println("Orders: " + report.orders() + ", copies: " + report.units() + ", revenue: $" + Money.format(report.revenue()));
+        if (report.orders() == 0) {
+            System.out.println("[X] Nothing sold yet.");
+            return;
+        }
+
+        System.out.println("\nBest sellers:");
+        System.out.printf("%4s %-40s %9s %14s%n", "#", "Game", "Copies", "Revenue");
+        int rank = 1;
+        for (SalesStats.Seller s : report.topSellers()) {
+            System.out.printf("%4d %-40s %9d %14s%n", rank++, "[" + s.game().getID() + "] " + s.game().getTitle(),
+                    s.units(), "$" + Money.format(s.revenue()));
+        }
+
+        System.out.println("\nRevenue per genre:");
+        System.out.printf("%-12s %9s %9s %14s%n", "Genre", "Orders", "Copies", "Revenue");
+        for (SalesStats.GenreSales g : report.genres()) {
+            System.out.printf("%-12s %9d %9d %14s%n", g.genre() == null ? "(none)" : g.genre().name(),
+                    g.orders(), g.units(), "$" + Money.format(g.revenue()));
+        }
+
+        System.out.println("\nSales rate:");
+        for (SalesStats.Rate r : report.rates()) {
+            System.out.printf("%-12s %9d orders %9d copies %14s  (%.2f orders/min)%n", r.label(), r.orders(), r.units(),
+                    "$" + Money.format(r.revenue()), r.ordersPerMinute());
+        }
+    }
+
+    /**
+     * Shows call counts and latency percentiles of every service operation since startup,
+     * and starts or stops appending the same table to METRICS_FILE every N seconds.
+     */
+    private void storeStatistics() {
+        boolean back = false;
+        while (!back) {
+            System.out.println("\n--- STORE STATISTICS ---");
+            System.out.print(MetricsRegistry.DEFAULT.snapshot());
+            System.out.println("\n1) Refresh");
+            System.out.println("2) Dump to " + METRICS_FILE + " periodically");
+            System.out.println("3) Stop periodic dump");
+            System.out.println("0) Back");
+
+            switch (readInt("Choose: ")) {
+                case 1 -> { }
+                case 2 -> {
+                    int seconds = readInt("Every how many seconds? ");
+                    if (seconds <= 0) {
+                        System.out.println("[X] Period must be positive.");
+                    } else {
+                        MetricsRegistry.DEFAULT.startDump(Paths.get(METRICS_FILE), seconds);
+                        System.out.println("[OK] Appending statistics to " + METRICS_FILE + " every " + seconds + "s.");
+                    }
+                }
+                case 3 -> System.out.println(MetricsRegistry.DEFAULT.stopDump()
+                        ? "[OK] Periodic dump stopped." : "[X] No periodic dump is running.");
+                case 0 -> back = true;
+                default -> System.out.println("Invalid option.");
+            }
+        }
     }
 
     // ========================
@@ -497,22 +784,22 @@ public class MainUI {
     }
 
     /**
-     * Reads a double from stdin with prompt and basic validation.
+     * Reads a price such as 49.99 from stdin with prompt and basic validation.
      *
      * @param prompt prompt message
-     * @return parsed double
+     * @return parsed price in cents
      * Chat GPT assisted Kaloudis last edited 3/12
      */
      
      
-    private double readDouble(String prompt) {
+    private long readPrice(String prompt) {
         while (true) {
             try {
                 System.out.print(prompt);
                 String s = scanner.nextLine().trim();
-                return Double.parseDouble(s);
+                return Money.parse(s);
             } catch (NumberFormatException e) {
-                System.out.println("[X] Invalid decimal number. Try again.");
+                System.out.println("[X] Invalid price (use e.g. 19.99). Try again.");
             }
         }
     }
@@ -536,19 +823,17 @@ public class MainUI {
     /**
      * Saves all users returned by userService.getUsers() to the USER_FILE.
      * Format: username;password;role
-     * This method overwrites the file completely on each save.
+     * Only used on exit: the journal is flushed and folded into a fresh snapshot (written atomically), then emptied.
      * Chat GPT assisted Kaloudis last edited 3/12
      */
     private void saveUsers() {
-        List<User> users = userService.getUsers();
-        Path p = Paths.get(USER_FILE);
-
-        try (BufferedWriter writer = Files.newBufferedWriter(p)) {
-            for (User u : users) {
-                //storing plaintext passwords. For production, hash them instead.
-                String line = String.join(";", u.getUsername(), u.getPassword(), u.getRole().name());
-                writer.write(line);
-                writer.newLine();
+        try {
+            if (journal != null) {
+                userService.setJournal(null);
+                journal.close();
+                journal = null;
+            } else {
+                UserJournal.writeSnapshot(Paths.get(USER_FILE), userService.getUsers());
             }
         } catch (IOException e) {
             System.out.println("[X] Unable to save users: " + e.getMessage());
@@ -556,7 +841,98 @@ public class MainUI {
     }
 
     /**
-     * Loads users from USER_FILE and registers customers that do not already exist.
+     * Replays changes journaled since the last snapshot, then attaches the journal so every
+     * later registration, password change and removal is appended instead of rewriting USER_FILE.
+     */
+    private void openJournal() {
+        Path p = Paths.get(USER_JOURNAL);
+        try {
+            int replayed = UserJournal.replay(p, userService);
+            if (replayed > 0) {
+                System.out.println("[OK] Replayed " + replayed + " journaled user change(s).");
+            }
+            journal = new UserJournal(p, Paths.get(USER_FILE), userService::getUsers);
+            userService.setJournal(journal);
+        } catch (IOException e) {
+            System.out.println("[X] Unable to open user journal, changes will only be saved on exit: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens the order ledger in LEDGER_DIR (recovering it after a crash) and attaches it to the cart service,
+     * so every checkout is on disk before the customer sees the receipt. Without it checkouts still work, unrecorded.
+     */
+    private void openLedger() {
+        try {
+            long start = System.nanoTime();
+            ledger = new OrderLedger(Paths.get(LEDGER_DIR));
+            cartService.setLedger(ledger);
+            if (ledger.lastOrderId() > 0) {
+                System.out.printf("[OK] Order ledger recovered up to order #%d in %.1f ms.%n",
+                        ledger.lastOrderId(), (System.nanoTime() - start) / 1e6);
+            }
+        } catch (IOException e) {
+            System.out.println("[X] Unable to open order ledger, orders will not be recorded: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Detaches the order ledger and closes it once the orders already queued are on disk.
+     */
+    private void closeLedger() {
+        if (ledger == null) return;
+        cartService.setLedger(null);
+        try {
+            ledger.close();
+        } catch (IOException e) {
+            System.out.println("[X] Unable to close order ledger: " + e.getMessage());
+        }
+        ledger = null;
+    }
+
+    /**
+     * Saves the whole videogame catalog to CATALOG_FILE as a binary snapshot (written atomically).
+     */
+    private void saveCatalog() {
+        try {
+            CatalogSnapshot.write(Paths.get(CATALOG_FILE), gameService.listAll());
+        } catch (IOException e) {
+            System.out.println("[X] Unable to save catalog: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Restores the catalog from CATALOG_FILE if one was saved, replacing the template games.
+     */
+    private void loadCatalog() {
+        Path p = Paths.get(CATALOG_FILE);
+        if (!Files.exists(p)) {
+            // First run -> keep the template games
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            List<Videogame> games = CatalogSnapshot.load(p);
+            gameService.loadCatalog(games);
+            System.out.println("[OK] Loaded " + games.size() + " games in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        } catch (IOException e) {
+            System.out.println("[X] Unable to load catalog: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends what the three services report to the given listener (a Renderer, or Renderer.none()).
+     * Only the interactive menus attach one; server mode leaves the services silent.
+     */
+    private void attach(StoreEvent.Listener listener) {
+        gameService.setListener(listener);
+        userService.setListener(listener);
+        cartService.setListener(listener);
+    }
+
+    /**
+     * Loads users from USER_FILE and registers accounts that do not already exist.
+     * The file is parsed in parallel by UserBulkLoader and inserted in one step; per-phase timings are printed.
      * Chat GPT assisted Kaloudis last edited 3/12
      */
     private void loadUsers() {
@@ -566,53 +942,12 @@ public class MainUI {
             return;
         }
 
-        try (BufferedReader reader = Files.newBufferedReader(p)) {
-            String line;
-            int lineNo = 0;
-            while ((line = reader.readLine()) != null) {
-                lineNo++;
-                line = line.trim();
-                if (line.isEmpty()) continue;
-
-                String[] parts = line.split(";", -1);
-                if (parts.length < 3) {
-                    System.out.println("[X] Skipping malformed line " + lineNo + " in users file.");
-                    continue;
-                }
-                String username = parts[0].trim();
-                String password = parts[1].trim();
-                String role = parts[2].trim();
-
-                boolean exists = userService.getUsers().stream().anyMatch(u -> u.getUsername().equals(username));
-                if (exists) {
-                    // Skip existing users
-                    continue;
-                }
-
-                if ("CUSTOMER".equalsIgnoreCase(role)) {
-                    try {
-                        userService.register(username, password);
-                    } catch (Exception e) {
-                        // If registration fails for some reason, print and continue.
-                        System.out.println("[X] Failed to register loaded user '" + username + "': " + e.getMessage());
-                    }
-                } else if ("OWNER".equalsIgnoreCase(role)) {
-                    try {
-                        userService.registerOwner(username, password);
-                        System.out.println("[OK] Loaded owner account: " + username);
-                    } catch (Exception e) {
-                        System.out.println("[X] Failed to load owner '" + username + "': " + e.getMessage());
-                    }
-                } else {
-                    // Unknown role: attempt to register as customer to at least create an account
-                    try {
-                        userService.register(username, password);
-                        System.out.println("[!] Loaded user '" + username + "' with unknown role '" + role + "' as CUSTOMER.");
-                    } catch (Exception e) {
-                        System.out.println("[X] Failed to register loaded user '" + username + "': " + e.getMessage());
-                    }
-                }
+        try {
+            UserBulkLoader.Report report = UserBulkLoader.load(p, userService);
+            if (report.malformed() > 0) {
+                System.out.println("[X] Skipped " + report.malformed() + " malformed line(s) in users file.");
             }
+            System.out.println("[OK] Loaded " + report);
         } catch (IOException e) {
             System.out.println("[X] Unable to load users: " + e.getMessage());
         }
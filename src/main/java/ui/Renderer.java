@@ -0,0 +1,124 @@
+package ui;
+
+import models.*;
+import services.*;
+
+import java.io.*;
+
+/**
+ * Turns the services' StoreEvents into the text the console UI has always shown.
+ *
+ * Three flavours, picked by whoever wires the services up:
+ *   console()        - prints each event to System.out as it happens (the interactive menus)
+ *   buffered(writer) - collects output in a 64 KB buffer, written out on flush() (ScriptDriver)
+ *   none()           - StoreEvent.Listener.NONE; the services skip building events at all (server mode, load runs, benchmarks)
+ *
+ * A Renderer can be shared by concurrent sessions: each event is written in one piece.
+ */
+public final class Renderer implements StoreEvent.Listener {
+
+    private final PrintWriter out;
+    private final boolean flushEachEvent; // CONSOLE: SHOW EVERY EVENT RIGHT AWAY
+
+    private Renderer(PrintWriter out, boolean flushEachEvent) {
+        this.out = out;
+        this.flushEachEvent = flushEachEvent;
+    }
+
+    // Returns a renderer that prints every event to System.out immediately.
+    public static Renderer console() {
+        return new Renderer(new PrintWriter(new OutputStreamWriter(System.out)), true);
+    }
+
+    // Accepts a destination. Returns a renderer that buffers into it and only writes on flush() (or when 64 KB pile up).
+    public static Renderer buffered(Writer destination) {
+        return new Renderer(new PrintWriter(new BufferedWriter(destination, 1 << 16)), false);
+    }
+
+    // Returns the listener that drops everything. Services check for it before building an event, so it costs nothing.
+    public static StoreEvent.Listener none() {
+        return StoreEvent.Listener.NONE;
+    }
+
+    @Override
+    public synchronized void on(StoreEvent event) {
+        write(event, out);
+        if (flushEachEvent) out.flush();
+    }
+
+    // Accepts a line of the UI's own output. Writes it in order with the events.
+    public synchronized void println(Object line) {
+        out.println(line);
+        if (flushEachEvent) out.flush();
+    }
+
+    // Accepts a format string and its arguments (see String.format). Writes the result in order with the events.
+    public synchronized void printf(String format, Object... args) {
+        out.printf(format, args);
+        if (flushEachEvent) out.flush();
+    }
+
+    public synchronized void flush() {
+        out.flush();
+    }
+
+    // HELPER (NOT IN UML). Writes the lines for one event.
+    private static void write(StoreEvent event, PrintWriter out) {
+        if (event instanceof StoreEvent.GameAdded e) {
+            out.println("Game added: " + e.game().getTitle());
+        } else if (event instanceof StoreEvent.DuplicateGame e) {
+            out.println("[X] A game with ID " + e.game().getID() + " is already listed.");
+        } else if (event instanceof StoreEvent.GameRemoved e) {
+            out.println("[OK] Game removed: " + e.game().getTitle());
+        } else if (event instanceof StoreEvent.GameNotListed) {
+            out.println("[X] Game not found in list.");
+        } else if (event instanceof StoreEvent.GameNotFound e) {
+            out.println("[X] Game not found (ID = " + e.gameID() + ")");
+        } else if (event instanceof StoreEvent.PriceUpdated e) {
+            out.println("[OK] Price updated for '" + e.game().getTitle() + "' -> " + Money.format(e.price()));
+        } else if (event instanceof StoreEvent.StockUpdated e) {
+            out.println("[OK] Stock updated for '" + e.game().getTitle() + "' -> " + e.stock());
+        } else if (event instanceof StoreEvent.OwnerOnly e) {
+            out.println("[X] Only owners can " + e.action() + ".");
+        } else if (event instanceof StoreEvent.GenreListing e) {
+            out.println("searchByGenre: " + e.genre());
+            for (Videogame vg : e.games()) {
+                out.println("  -> " + vg);
+            }
+            if (e.games().isEmpty()) {
+                out.println("[X] No games found in this genre.");
+            }
+        } else if (event instanceof StoreEvent.GameDetail e) {
+            out.println("=== Game Details ===");
+            out.println(e.game());
+            out.println("Description:");
+            out.println(e.game().getDescription());
+            out.println("===================");
+        } else if (event instanceof StoreEvent.AddedToCart e) {
+            out.println("Added '" + e.game().getTitle() + "' to " + e.customer().getUsername() + "'s cart.");
+        } else if (event instanceof StoreEvent.NotInCart) {
+            out.println("[X] Game does not exist in cart.");
+        } else if (event instanceof StoreEvent.CartEmpty) {
+            out.println("[X] Cart is empty.");
+        } else if (event instanceof StoreEvent.CheckedOut e) {
+            CartService.Receipt r = e.receipt();
+            out.println("=== Checkout for " + r.customer().getUsername() + " ===");
+            if (r.orderId() != 0) out.println("Order #" + r.orderId());
+            for (ShoppingCart.Line line : r.lines()) {
+                out.println("- " + line.getGame().getTitle() + " x" + line.getQuantity() + " ($" + Money.format(line.getUnitPrice()) + ")");
+            }
+            out.println("Total: $" + Money.format(r.total()));
+            out.println("[OK] Payment successful. Thank you!");
+        } else if (event instanceof StoreEvent.LoggedIn e) {
+            out.println("[OK] Successful login -> " + e.user().getUsername() + " (" + e.user().getRole() + ")");
+        } else if (event instanceof StoreEvent.LoggedOut e) {
+            out.println("[OK] Successful logout -> " + e.user().getUsername());
+        } else if (event instanceof StoreEvent.PasswordChanged e) {
+            out.println("[OK] Password changed for " + e.user().getUsername());
+        } else if (event instanceof StoreEvent.UserFound e) {
+            out.println("User found -> " + e.user());
+        } else if (event instanceof StoreEvent.UserNotFound e) {
+            out.println("No user with id " + e.userID());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package ui;
+
+import models.*;
+import services.*;
+import exceptions.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Non-interactive driver for the store: runs a command script against the services
+ * instead of the Scanner menus, for batch jobs, replaying recorded traffic and load runs.
+ *
+ * One command per line, blank lines and lines starting with '#' are ignored:
+ *   register USER PASS        login USER PASS        logout
+ *   list                      search TEXT...         genre GENRE        show ID
+ *   fuzzy TEXT...             (typo-tolerant title search, closest first)
+ *   find TEXT...              (full-text search over titles and descriptions, best match first)
+ *   add ID                    remove ID              cart               checkout
+ *   addgame TITLE;GENRE;DESCRIPTION;PRICE;STOCK      removegame ID
+ *   price ID PRICE            stock ID STOCK
+ *
+ * All output (the driver's own and the services' events) goes through one buffered Renderer,
+ * and the run ends with the operation count, elapsed time and throughput.
+ */
+public class ScriptDriver {
+
+    private final GameService gameService;
+    private final UserService userService;
+    private final CartService cartService;
+    private User currentUser = null;
+    private Renderer out = null; // SET FOR THE DURATION OF run()
+
+    private long ops = 0;
+    private long errors = 0;
+
+    public ScriptDriver(GameService gameService, UserService userService, CartService cartService) {
+        this.gameService = gameService;
+        this.userService = userService;
+        this.cartService = cartService;
+    }
+
+    /**
+     * Runs every command read from the script and prints the summary.
+     * The services report to a buffered Renderer for the duration of the run (and to nobody afterwards),
+     * so output is not flushed line by line.
+     *
+     * @param script source of commands (a file or stdin)
+     */
+    public void run(Reader script) throws IOException {
+        out = Renderer.buffered(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out)));
+        attach(out);
+        long start = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(script)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                ops++;
+                try {
+                    execute(line);
+                } catch (RuntimeException e) {
+                    errors++;
+                    out.println("[X] Line " + lineNo + " (" + line + "): " + message(e));
+                }
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            double seconds = elapsed / 1e9;
+            out.printf("%n=== SCRIPT SUMMARY ===%n");
+            out.printf("Operations: %d (errors: %d)%n", ops, errors);
+            out.printf("Elapsed: %.3f ms%n", elapsed / 1e6);
+            out.printf("Throughput: %.0f ops/s%n", seconds > 0 ? ops / seconds : 0.0);
+            out.flush();
+            attach(Renderer.none());
+        }
+    }
+
+    /**
+     * Parses and runs one command line.
+     */
+    private void execute(String line) {
+        String[] parts = line.split("\\s+", 2);
+        String cmd = parts[0].toLowerCase(Locale.ROOT);
+        String rest = parts.length > 1 ? parts[1] : "";
+        String[] args = rest.isEmpty() ? new String[0] : rest.split("\\s+");
+
+        switch (cmd) {
+            case "register" -> {
+                need(args, 2, "register USER PASS");
+                User u = userService.register(args[0], args[1]);
+                if (u == null) throw new StoreExceptions.InvalidInputException("Username and/or Password cannot be empty.");
+                out.println("[OK] Registered: " + u.getUsername());
+            }
+            case "login" -> {
+                need(args, 2, "login USER PASS");
+                currentUser = userService.login(args[0], args[1])
+                        .orElseThrow(() -> new StoreExceptions.UserException("Incorrect username or password."));
+            }
+            case "logout" -> {
+                userService.logout(currentUser);
+                currentUser = null;
+            }
+            case "list" -> gameService.listAll().forEach(out::println);
+            case "search" -> gameService.findByTitle(rest).forEach(out::println);
+            case "find" -> gameService.searchText(rest, MainUI.TEXT_RESULTS).forEach(out::println);
+            case "fuzzy" -> gameService.findByTitleFuzzy(rest, MainUI.FUZZY_DISTANCE, MainUI.FUZZY_RESULTS).forEach(out::println);
+            case "genre" -> {
+                need(args, 1, "genre GENRE");
+                gameService.findByGenre(Videogame.Genre.valueOf(args[0].toUpperCase(Locale.ROOT)))
+                        .forEach(out::println);
+            }
+            case "show" -> gameService.showDetail(game(args));
+            case "add" -> cartService.addCart(customer(), game(args));
+            case "remove" -> cartService.removeCart(customer(), game(args));
+            case "cart" -> {
+                Customer c = customer();
+                out.println(c.getCart());
+                out.println("Total: " + Money.format(cartService.total(c)));
+            }
+            case "checkout" -> cartService.checkout(customer());
+            case "addgame" -> {
+                String[] f = rest.split(";", -1);
+                if (f.length < 5) throw new StoreExceptions.InvalidInputException("Usage: addgame TITLE;GENRE;DESCRIPTION;PRICE;STOCK");
+                Videogame vg = new Videogame(f[0].trim(), Videogame.Genre.valueOf(f[1].trim().toUpperCase(Locale.ROOT)),
+                        f[2].trim(), Money.parse(f[3]), Integer.parseInt(f[4].trim()));
+                gameService.addGame(owner(), vg);
+            }
+            case "removegame" -> gameService.removeGame(owner(), game(args));
+            case "price" -> {
+                need(args, 2, "price ID PRICE");
+                gameService.updatePrice(owner(), Integer.parseInt(args[0]), Money.parse(args[1]));
+            }
+            case "stock" -> {
+                need(args, 2, "stock ID STOCK");
+                gameService.updateStock(owner(), Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+            }
+            default -> throw new StoreExceptions.InvalidInputException("Unknown command '" + cmd + "'.");
+        }
+    }
+
+    // ========================
+    // HELPERS
+    // ========================
+
+    private void attach(StoreEvent.Listener listener) {
+        gameService.setListener(listener);
+        userService.setListener(listener);
+        cartService.setListener(listener);
+    }
+
+    // Services prefix their messages with "[X] " for the console; the line report already starts with one.
+    private static String message(RuntimeException e) {
+        String msg = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        return msg.startsWith("[X] ") ? msg.substring(4) : msg;
+    }
+
+    private static void need(String[] args, int n, String usage) {
+        if (args.length < n) throw new StoreExceptions.InvalidInputException("Usage: " + usage);
+    }
+
+    private Videogame game(String[] args) {
+        need(args, 1, "<command> ID");
+        Videogame vg = gameService.findByID(Integer.parseInt(args[0]));
+        if (vg == null) throw new StoreExceptions.InvalidInputException("Game not found (ID = " + args[0] + ").");
+        return vg;
+    }
+
+    private Customer customer() {
+        if (currentUser instanceof Customer c) return c;
+        throw new StoreExceptions.PermissionException("You must be logged in as a CUSTOMER to use a cart.");
+    }
+
+    private Owner owner() {
+        if (currentUser instanceof Owner o) return o;
+        throw new StoreExceptions.PermissionException("Owner privileges required.");
+    }
+}
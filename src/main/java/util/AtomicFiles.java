@@ -0,0 +1,35 @@
+package util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Durable "write a temp file, then swap it in" for the snapshot writers.
+ * The temp file must already be forced to disk; replace() renames it over the target and then fsyncs the
+ * directory, because until the directory entry itself is on disk a crash can still bring back the old file.
+ */
+public final class AtomicFiles {
+
+    private AtomicFiles() {}
+
+    // Accepts a fully written, fsynced temp file and its destination (same directory). Atomically moves it into place
+    // and makes the rename durable.
+    public static void replace(Path tmp, Path file) throws IOException {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) return;
+        FileChannel ch;
+        try {
+            ch = FileChannel.open(dir, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return; // directories cannot be opened on some platforms (Windows), which order the rename themselves
+        }
+        try (ch) {
+            ch.force(true);
+        }
+    }
+}
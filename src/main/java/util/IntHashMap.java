@@ -0,0 +1,206 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open-addressing hash map keyed by primitive int.
+ * Used for the ID indexes so lookups never box the key and never allocate.
+ * Null values are not allowed (a null slot marks an empty bucket).
+ */
+public class IntHashMap<V> {
+
+    // =======================
+    // FIELDS
+    // =======================
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    // =======================
+    // CONSTRUCTORS
+    // =======================
+
+    public IntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    // Accepts expected number of entries, pre-sizes the table so no rehash happens until it is exceeded.
+    public IntHashMap(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expected) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    // =======================
+    // MAP OPERATIONS
+    // =======================
+
+    // Accepts int key. Returns the mapped value or null. Does not allocate.
+    // Reads the tables into locals first, so a lookup racing a resize sees a stale or empty answer but never fails
+    // (GameService validates such optimistic reads and retries under its lock).
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int[] ks = keys;
+        Object[] vs = values;
+        if (ks.length != vs.length) return null;
+        int m = vs.length - 1;
+        int i = slot(key, m);
+        Object v;
+        while ((v = vs[i]) != null) {
+            if (ks[i] == key) return (V) v;
+            i = (i + 1) & m;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    // Accepts int key and non-null value. Returns the previous value or null.
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntHashMap does not accept null values.");
+        }
+        int i = slot(key);
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeAt) {
+            rehash(values.length << 1);
+        }
+        return null;
+    }
+
+    // Accepts int key and non-null value. Only inserts when the key is absent. Returns the existing value or null.
+    public V putIfAbsent(int key, V value) {
+        V existing = get(key);
+        if (existing != null) return existing;
+        put(key, value);
+        return null;
+    }
+
+    // Accepts int key. Returns the removed value or null. Uses backward-shift deletion so no tombstones are left behind.
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = slot(key);
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    // Accepts expected number of entries, grows the table once up front instead of rehashing repeatedly during a bulk insert.
+    public void ensureCapacity(int expected) {
+        int capacity = values.length;
+        while (capacity * 3 / 4 < expected) {
+            capacity <<= 1;
+        }
+        if (capacity != values.length) {
+            rehash(capacity);
+        }
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    // Returns an array with all keys, in table order.
+    public int[] keys() {
+        int[] out = new int[size];
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) out[n++] = keys[i];
+        }
+        return out;
+    }
+
+    // Returns a list with all values, in table order.
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> out = new ArrayList<>(size);
+        for (Object v : values) {
+            if (v != null) out.add((V) v);
+        }
+        return out;
+    }
+
+    // =======================
+    // HELPERS
+    // =======================
+
+    private int slot(int key) {
+        return slot(key, mask);
+    }
+
+    private static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9; // Fibonacci hashing spreads sequential IDs across the table
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void shiftBack(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null) break;
+            int home = slot(keys[i]);
+            // move the entry into the gap only if its home slot is not between the gap and its current slot
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity * 3 / 4;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldValues.length; j++) {
+            Object v = oldValues[j];
+            if (v == null) continue;
+            int i = slot(oldKeys[j]);
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = v;
+        }
+    }
+}
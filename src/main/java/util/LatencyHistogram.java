@@ -0,0 +1,118 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of non-negative long values (latencies in nanoseconds).
+ * Values below 64 get one bucket each; above that every power of two is split into 64 buckets,
+ * so any recorded value is reported within 1/64 (~1.6%) of its true value, from 1 ns up to Long.MAX_VALUE,
+ * in a fixed 29 KB array. record() is an array increment and never allocates.
+ *
+ * Not thread-safe: give each worker its own histogram and add() them together afterwards.
+ */
+public class LatencyHistogram {
+
+    // =======================
+    // FIELDS
+    // =======================
+    private static final int SUB_BITS = 6;
+    private static final int SUB = 1 << SUB_BITS; // BUCKETS PER POWER OF TWO
+    static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    // =======================
+    // RECORDING
+    // =======================
+
+    // Accepts a value (negative values count as 0). Adds it to its bucket.
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    // Accepts another histogram. Adds all of its values to this one.
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    // Package-private: adds a copy of concurrently recorded buckets (same layout as this class) and their totals.
+    // Used by MetricsRegistry.Timer to turn its live counters into a histogram snapshot.
+    void merge(long[] bucketCounts, long sum, long min, long max) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += bucketCounts[i];
+            count += bucketCounts[i];
+        }
+        this.sum += sum;
+        this.min = Math.min(this.min, min);
+        this.max = Math.max(this.max, max);
+    }
+
+    // Forgets every recorded value.
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    // =======================
+    // QUERIES
+    // =======================
+
+    public long count() { return count; }
+
+    public long max() { return max; }
+
+    public long min() { return count == 0 ? 0 : min; }
+
+    public double mean() { return count == 0 ? 0 : (double) sum / count; }
+
+    // Accepts a percentile between 0 and 100. Returns the smallest bucket bound that at least that share of
+    // the values fall under (never above max()), 0 if nothing was recorded.
+    public long percentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * count);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    // =======================
+    // HELPERS
+    // =======================
+
+    // Bucket of a value: exact below SUB, otherwise the top SUB_BITS + 1 bits select it.
+    static int index(long value) {
+        if (value < SUB) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB + (int) (value >>> shift) - SUB;
+    }
+
+    // Largest value that lands in bucket i.
+    private static long upperBound(int i) {
+        if (i < SUB) return i;
+        int shift = i / SUB - 1;
+        long sub = i % SUB + SUB;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,195 @@
+package util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters and latency timers for the services.
+ * Counters are LongAdders (striped per CPU, so concurrent increments do not fight over one cache line).
+ * Timers are striped the same way: each thread records into one of up to STRIPES cells (picked by thread ID, created
+ * on first use), each a fixed array of log-linear buckets (the LatencyHistogram layout) plus its own sum, min and max,
+ * all atomic longs. Threads on different cells never touch the same counters, so hot reads timed from many threads
+ * do not serialize on one bucket; snapshot() adds the cells up. Recording never allocates after the first call per cell.
+ * Look metrics up once (e.g. into a final field) and keep the reference; the name lookup is not meant for the hot path.
+ */
+public class MetricsRegistry {
+
+    // =======================
+    // FIELDS
+    // =======================
+    public static final MetricsRegistry DEFAULT = new MetricsRegistry(); // SHARED BY THE SERVICES
+    static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) << 2); // CELLS PER TIMER (POWER OF TWO, 2+ PER CPU)
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final long createdAt = System.nanoTime();
+    private ScheduledExecutorService dumper;
+    private ScheduledFuture<?> dumpTask;
+
+    // =======================
+    // METRIC TYPES
+    // =======================
+
+    /**
+     * Monotonic event counter.
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() { value.increment(); }
+
+        public void add(long n) { value.add(n); }
+
+        public long get() { return value.sum(); }
+    }
+
+    /**
+     * Call count and latency distribution of one operation, in nanoseconds.
+     */
+    public static final class Timer {
+        private static final int SUM = LatencyHistogram.BUCKETS, MIN = SUM + 1, MAX = SUM + 2; // TOTALS AFTER THE BUCKETS
+
+        private final AtomicReferenceArray<AtomicLongArray> cells = new AtomicReferenceArray<>(STRIPES);
+
+        // Returns a start timestamp to hand back to stop().
+        public long start() {
+            return System.nanoTime();
+        }
+
+        // Accepts the timestamp from start(). Records the time elapsed since then.
+        public void stop(long start) {
+            record(System.nanoTime() - start);
+        }
+
+        // Accepts a duration in nanoseconds (negative counts as 0). Adds it to the distribution.
+        public void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            AtomicLongArray cell = cell();
+            cell.incrementAndGet(LatencyHistogram.index(nanos));
+            cell.addAndGet(SUM, nanos);
+            long m;
+            while (nanos > (m = cell.get(MAX)) && !cell.compareAndSet(MAX, m, nanos)) { }
+            while (nanos < (m = cell.get(MIN)) && !cell.compareAndSet(MIN, m, nanos)) { }
+        }
+
+        // Returns a point-in-time copy of the distribution, all cells added up (values recorded while copying
+        // may or may not be in it).
+        public LatencyHistogram snapshot() {
+            LatencyHistogram h = new LatencyHistogram();
+            long[] copy = new long[LatencyHistogram.BUCKETS];
+            for (int c = 0; c < STRIPES; c++) {
+                AtomicLongArray cell = cells.get(c);
+                if (cell == null) continue;
+                for (int i = 0; i < copy.length; i++) {
+                    copy[i] = cell.get(i);
+                }
+                h.merge(copy, cell.get(SUM), cell.get(MIN), cell.get(MAX));
+            }
+            return h;
+        }
+
+        // HELPER (NOT IN UML). Returns the calling thread's cell, creating it on first use.
+        private AtomicLongArray cell() {
+            long mixed = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L; // spread consecutive thread IDs
+            int i = (int) (mixed >>> 32) & (STRIPES - 1);
+            AtomicLongArray cell = cells.get(i);
+            if (cell == null) {
+                AtomicLongArray fresh = new AtomicLongArray(MAX + 1);
+                fresh.set(MIN, Long.MAX_VALUE);
+                cell = cells.compareAndSet(i, null, fresh) ? fresh : cells.get(i);
+            }
+            return cell;
+        }
+    }
+
+    // =======================
+    // REGISTRY
+    // =======================
+
+    // Accepts metric name. Returns the counter with that name, created on first use.
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    // Accepts metric name. Returns the timer with that name, created on first use.
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, n -> new Timer());
+    }
+
+    // Returns a human-readable table of every timer (calls, calls/s since start, mean and percentiles in microseconds)
+    // and every counter, sorted by name.
+    public String snapshot() {
+        double uptime = Math.max(1e-9, (System.nanoTime() - createdAt) / 1e9);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-34s %10s %9s %10s %10s %10s %10s %10s%n",
+                "operation", "calls", "calls/s", "mean(us)", "p50(us)", "p99(us)", "p99.9(us)", "max(us)"));
+        for (Map.Entry<String, Timer> e : new TreeMap<>(timers).entrySet()) {
+            LatencyHistogram h = e.getValue().snapshot();
+            if (h.count() == 0) continue;
+            sb.append(String.format("%-34s %10d %9.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    e.getKey(), h.count(), h.count() / uptime, h.mean() / 1e3, h.percentile(50) / 1e3,
+                    h.percentile(99) / 1e3, h.percentile(99.9) / 1e3, h.max() / 1e3));
+        }
+        boolean header = false;
+        for (Map.Entry<String, Counter> e : new TreeMap<>(counters).entrySet()) {
+            if (!header) {
+                sb.append(String.format("%n%-34s %10s%n", "counter", "value"));
+                header = true;
+            }
+            sb.append(String.format("%-34s %10d%n", e.getKey(), e.getValue().get()));
+        }
+        return sb.toString();
+    }
+
+    // =======================
+    // PERIODIC DUMP
+    // =======================
+
+    // Accepts a file and a period. Appends a timestamped snapshot() to the file every period on a daemon thread,
+    // replacing any dump already running.
+    public synchronized void startDump(Path file, long periodSeconds) {
+        stopDump();
+        if (dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        dumpTask = dumper.scheduleAtFixedRate(() -> dump(file), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    // Stops the periodic dump, if one is running. Returns whether one was.
+    public synchronized boolean stopDump() {
+        if (dumpTask == null) return false;
+        dumpTask.cancel(false);
+        dumpTask = null;
+        return true;
+    }
+
+    // Accepts a file. Appends one timestamped snapshot to it.
+    public void dump(Path file) {
+        String text = "=== " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " ===\n" + snapshot() + "\n";
+        try {
+            Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("[X] Unable to write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+}
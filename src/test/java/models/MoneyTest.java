@@ -0,0 +1,52 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Money: parsing and printing amounts in cents, and overflow-checked line totals.
+ */
+class MoneyTest {
+
+    @Test
+    void parsesWholeAndDecimalAmounts() {
+        assertEquals(4999, Money.parse("49.99"));
+        assertEquals(500, Money.parse("5"));
+        assertEquals(550, Money.parse("5.5"));
+        assertEquals(500, Money.parse("5."));
+        assertEquals(50, Money.parse(".5"));
+        assertEquals(-25, Money.parse("-0.25"));
+        assertEquals(1234, Money.parse(" +12.34 "));
+    }
+
+    @Test
+    void rejectsMalformedAmounts() {
+        for (String bad : new String[]{null, "", "-", ".", "1.234", "1,50", "abc", "1.2.3", "99999999999999999999"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(bad), String.valueOf(bad));
+        }
+    }
+
+    @Test
+    void formatsWithTwoDecimals() {
+        assertEquals("49.99", Money.format(4999));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("0.00", Money.format(0));
+        assertEquals("-0.25", Money.format(-25));
+        assertEquals("-12.30", Money.format(-1230));
+        assertEquals("x=1.00", Money.appendTo(new StringBuilder("x="), 100).toString());
+    }
+
+    @Test
+    void formatAndParseRoundTrip() {
+        for (long cents : new long[]{0, 1, 99, 100, 4999, -1, -101, Long.MAX_VALUE / 1000}) {
+            assertEquals(cents, Money.parse(Money.format(cents)));
+        }
+    }
+
+    @Test
+    void timesIsExact() {
+        assertEquals(14997, Money.times(4999, 3));
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+    }
+}
@@ -0,0 +1,87 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ShoppingCart: one line per game, running size and total kept in step with every add and remove.
+ */
+class ShoppingCartTest {
+
+    private final Customer customer = new Customer("cart-test", "pw");
+    private final Videogame cheap = new Videogame("Cheap", Videogame.Genre.values()[0], "d", 499, 10);
+    private final Videogame dear = new Videogame("Dear", Videogame.Genre.values()[0], "d", 6999, 10);
+
+    @Test
+    void addsUpLinesAndTotals() {
+        ShoppingCart cart = customer.getCart();
+        cart.add(cheap);
+        cart.add(dear, 2);
+        cart.add(cheap);
+
+        assertEquals(2, cart.getLines().size());
+        assertEquals(4, cart.size());
+        assertEquals(2, cart.quantity(cheap.getID()));
+        assertEquals(2, cart.quantity(dear.getID()));
+        assertEquals(2 * 499 + 2 * 6999, cart.getTotal());
+        assertEquals(List.of(cheap, dear), cart.getLines().stream().map(ShoppingCart.Line::getGame).toList());
+        assertEquals(2 * 6999, cart.getLines().stream().filter(l -> l.getGame() == dear).findFirst().orElseThrow().getSubtotal());
+    }
+
+    @Test
+    void removeTakesOneCopyAndDropsEmptyLines() {
+        ShoppingCart cart = customer.getCart();
+        cart.add(cheap, 2);
+        cart.add(dear);
+
+        assertTrue(cart.remove(cheap));
+        assertEquals(1, cart.quantity(cheap.getID()));
+        assertEquals(499 + 6999, cart.getTotal());
+        assertTrue(cart.remove(cheap));
+        assertEquals(0, cart.quantity(cheap.getID()));
+        assertEquals(1, cart.getLines().size());
+        assertFalse(cart.remove(cheap));
+        assertEquals(6999, cart.getTotal());
+        assertEquals(1, cart.size());
+    }
+
+    @Test
+    void keepsThePriceAtTheTimeOfAdding() {
+        ShoppingCart cart = customer.getCart();
+        cart.add(cheap);
+        cheap.setPriceCents(999);
+        cart.add(cheap);
+        cart.remove(cheap);
+
+        assertEquals(499, cart.getTotal());
+        assertEquals(499, cart.getLines().iterator().next().getUnitPrice());
+    }
+
+    @Test
+    void clearEmptiesEverything() {
+        ShoppingCart cart = customer.getCart();
+        cart.add(cheap, 3);
+        cart.clear();
+
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.size());
+        assertEquals(0, cart.getTotal());
+        assertTrue(cart.getLines().isEmpty());
+    }
+
+    @Test
+    void rejectsBadQuantitiesAndOverflow() {
+        ShoppingCart cart = customer.getCart();
+        assertThrows(IllegalArgumentException.class, () -> cart.add(cheap, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ShoppingCart(null));
+
+        Videogame priceless = new Videogame("Priceless", null, "d", Long.MAX_VALUE / 2, 10);
+        cart.add(priceless);
+        assertThrows(ArithmeticException.class, () -> cart.add(priceless, 2));
+        assertEquals(Long.MAX_VALUE / 2, cart.getTotal());
+        assertEquals(1, cart.size());
+    }
+}
@@ -0,0 +1,111 @@
+package services;
+
+import exceptions.StoreExceptions;
+import models.Customer;
+import models.Owner;
+import models.Videogame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CartService checkout: stock is claimed with a CAS per game, all or nothing, so concurrent shoppers never oversell.
+ */
+class CartServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        CartService carts = new CartService();
+        Videogame scarce = new Videogame("Scarce", Videogame.Genre.values()[0], "d", 1000, 25);
+        int shoppers = 8, rounds = 20;
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int s = 0; s < shoppers; s++) {
+            Customer c = new Customer("shopper" + s, "pw");
+            threads.add(new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int r = 0; r < rounds; r++) {
+                    carts.addCart(c, scarce);
+                    try {
+                        sold.addAndGet(carts.checkout(c).items());
+                    } catch (StoreExceptions.OutOfStockException e) {
+                        refused.incrementAndGet();
+                        carts.removeCart(c, scarce);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        go.countDown();
+        for (Thread t : threads) t.join();
+
+        assertEquals(25, sold.get());
+        assertEquals(0, scarce.getStock());
+        assertEquals(shoppers * rounds - 25, refused.get());
+    }
+
+    @Test
+    void shortStockClaimsNothingAndLeavesTheCart() {
+        CartService carts = new CartService();
+        Videogame plenty = new Videogame("Plenty", null, "d", 500, 10);
+        Videogame last = new Videogame("Last", null, "d", 700, 1);
+        Customer c = new Customer("buyer", "pw");
+        carts.addCart(c, plenty);
+        carts.addCart(c, last);
+        carts.addCart(c, last);
+
+        assertThrows(StoreExceptions.OutOfStockException.class, () -> carts.checkout(c));
+        assertEquals(10, plenty.getStock());
+        assertEquals(1, last.getStock());
+        assertEquals(3, c.getCart().size());
+
+        carts.removeCart(c, last);
+        CartService.Receipt receipt = carts.checkout(c);
+        assertEquals(500 + 700, receipt.total());
+        assertEquals(9, plenty.getStock());
+        assertEquals(0, last.getStock());
+        assertTrue(c.getCart().isEmpty());
+        assertNull(carts.checkout(c)); // empty cart
+    }
+
+    @Test
+    void checkoutWaitsForTheLedgerAndFailsCleanlyWhenItIsClosed() throws Exception {
+        CartService carts = new CartService();
+        Videogame game = new Videogame("Recorded", null, "d", 2500, 5);
+        Customer c = new Customer("recorded", "pw");
+        OrderLedger ledger = new OrderLedger(dir, 4096);
+        carts.setLedger(ledger);
+
+        carts.addCart(c, game);
+        assertEquals(1, carts.checkout(c).orderId());
+
+        ledger.close();
+        carts.addCart(c, game);
+        assertThrows(StoreExceptions.LedgerException.class, () -> carts.checkout(c));
+        assertEquals(4, game.getStock(), "stock given back");
+        assertEquals(1, c.getCart().size(), "cart left as it was");
+    }
+
+    @Test
+    void onlyOwnersSeeTheSalesReport() {
+        CartService carts = new CartService();
+        assertThrows(StoreExceptions.PermissionException.class, () -> carts.salesReport(new Customer("c", "p"), 5));
+        assertEquals(0, carts.salesReport(new Owner("o", "p"), 5).orders());
+    }
+}
@@ -0,0 +1,95 @@
+package services;
+
+import models.Videogame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CatalogSnapshot: what is written loads back field for field, and a damaged file is an IOException, never a crash.
+ */
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripKeepsEveryField() throws Exception {
+        List<Videogame> games = new ArrayList<>();
+        Videogame.Genre[] genres = Videogame.Genre.values();
+        for (int i = 0; i < 200; i++) {
+            games.add(new Videogame("Game " + i + (i % 7 == 0 ? " été ★" : ""),
+                    i % 11 == 0 ? null : genres[i % genres.length], i % 5 == 0 ? "" : "Description of " + i,
+                    499 + i * 37L, i % 13));
+        }
+        Path file = dir.resolve("catalog.bin");
+        CatalogSnapshot.write(file, games);
+        List<Videogame> loaded = CatalogSnapshot.load(file);
+
+        assertEquals(games.size(), loaded.size());
+        for (int i = 0; i < games.size(); i++) {
+            Videogame a = games.get(i), b = loaded.get(i);
+            assertEquals(a.getID(), b.getID());
+            assertEquals(a.getTitle(), b.getTitle());
+            assertEquals(a.getGenre(), b.getGenre());
+            assertEquals(a.getDescription(), b.getDescription());
+            assertEquals(a.getPriceCents(), b.getPriceCents());
+            assertEquals(a.getStock(), b.getStock());
+        }
+        assertFalse(Files.exists(dir.resolve("catalog.bin.tmp")));
+    }
+
+    @Test
+    void emptyCatalogRoundTrips() throws Exception {
+        Path file = dir.resolve("catalog.bin");
+        CatalogSnapshot.write(file, List.of());
+        assertTrue(CatalogSnapshot.load(file).isEmpty());
+    }
+
+    @Test
+    void truncatedOrForeignFilesAreRejected() throws Exception {
+        Path file = dir.resolve("catalog.bin");
+        CatalogSnapshot.write(file, List.of(new Videogame("A", null, "d", 100, 1)));
+        byte[] good = Files.readAllBytes(file);
+
+        Files.write(file, Arrays.copyOf(good, good.length - 1));
+        assertThrows(IOException.class, () -> CatalogSnapshot.load(file));
+        Files.write(file, Arrays.copyOf(good, 8));
+        assertThrows(IOException.class, () -> CatalogSnapshot.load(file));
+        Files.writeString(file, "owner;owner123;OWNER\n");
+        assertThrows(IOException.class, () -> CatalogSnapshot.load(file));
+    }
+
+    @Test
+    void randomCorruptionIsAnIOExceptionOrAValidCatalog() throws Exception {
+        List<Videogame> games = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            games.add(new Videogame("Title " + i, Videogame.Genre.values()[i % 3], "Desc " + i, 100 + i, i));
+        }
+        Path file = dir.resolve("catalog.bin");
+        CatalogSnapshot.write(file, games);
+        byte[] good = Files.readAllBytes(file);
+        SplittableRandom rnd = new SplittableRandom(11);
+        for (int round = 0; round < 2_000; round++) {
+            byte[] bad = good.clone();
+            for (int k = rnd.nextInt(1, 4); k > 0; k--) {
+                bad[rnd.nextInt(bad.length)] = (byte) rnd.nextInt(256);
+            }
+            Files.write(file, bad);
+            try {
+                assertEquals(games.size(), CatalogSnapshot.load(file).size());
+            } catch (IOException expected) {
+                // rejected: fine
+            }
+        }
+    }
+}
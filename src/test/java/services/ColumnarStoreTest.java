@@ -0,0 +1,92 @@
+package services;
+
+import models.Videogame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ColumnarStore: freed slots are reused, and a removed game's View keeps its own fields and stock even after another
+ * game moved into its slot.
+ */
+class ColumnarStoreTest {
+
+    @Test
+    void removedSlotsAreReusedAndOldViewsKeepTheirGame() {
+        ColumnarStore store = new ColumnarStore();
+        List<ColumnarStore.View> views = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            views.add(store.add(new Videogame("Game " + i, Videogame.Genre.values()[0], "d" + i, 100 + i, 10)));
+        }
+        for (int i = 0; i < 100; i += 2) {
+            store.remove(views.get(i));
+        }
+        store.remove(views.get(0)); // already removed
+        assertEquals(50, store.size());
+
+        List<ColumnarStore.View> added = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            added.add(store.add(new Videogame("New " + i, null, "n", 5000, 3)));
+        }
+        assertEquals(100, store.size());
+        assertEquals(100, store.capacity(), "every new game went into a freed slot");
+
+        for (int i = 0; i < 100; i += 2) {
+            ColumnarStore.View old = views.get(i);
+            assertEquals("Game " + i, old.getTitle());
+            assertEquals("d" + i, old.getDescription());
+            assertEquals(100 + i, old.getPriceCents());
+            assertEquals(Videogame.Genre.values()[0], old.getGenre());
+            assertTrue(old.tryReserve(10));
+            assertFalse(old.tryReserve(1));
+            old.setPriceCents(1);
+        }
+        for (ColumnarStore.View vg : added) {
+            assertTrue(vg.getTitle().startsWith("New "));
+            assertEquals(5000, vg.getPriceCents());
+            assertEquals(3, vg.getStock());
+        }
+        List<Videogame> all = store.select(null, 0, Long.MAX_VALUE);
+        assertEquals(100, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getID() < all.get(i).getID());
+        }
+        assertEquals(50, store.select(null, 5000, 5000).size());
+    }
+
+    @Test
+    void claimsRacingARemoveAreNeitherLostNorAppliedToTheNextGame() throws Exception {
+        ColumnarStore store = new ColumnarStore();
+        ColumnarStore.View view = store.add(new Videogame("Busy", null, "d", 100, 2_000_000));
+        AtomicInteger claimed = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (view.tryReserve(1)) {
+                    claimed.incrementAndGet();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        go.countDown();
+        Thread.sleep(5);
+        store.remove(view);
+        ColumnarStore.View next = store.add(new Videogame("Next", null, "d", 100, 500));
+        for (Thread t : threads) t.join();
+
+        assertEquals(2_000_000, claimed.get() + view.getStock());
+        assertEquals(500, next.getStock());
+        assertEquals(1, store.capacity());
+    }
+}
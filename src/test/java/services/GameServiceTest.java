@@ -0,0 +1,125 @@
+package services;
+
+import models.Owner;
+import models.Videogame;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GameService indexes, in both storages: price and stock ranges stay in step with price changes and checkouts,
+ * paging skips removed games, and the inventory report adds up to the catalog.
+ */
+class GameServiceTest {
+
+    private static final Owner OWNER = new Owner("owner", "owner123");
+
+    private GameService seeded(GameService.Storage storage, int count) {
+        SplittableRandom rnd = new SplittableRandom(3);
+        Videogame.Genre[] genres = Videogame.Genre.values();
+        List<Videogame> games = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            games.add(new Videogame("Game " + i, rnd.nextInt(10) == 0 ? null : genres[rnd.nextInt(genres.length)],
+                    "d", rnd.nextInt(100, 9000), rnd.nextInt(0, 30)));
+        }
+        GameService service = new GameService(storage);
+        service.loadCatalog(games);
+        return service;
+    }
+
+    @ParameterizedTest
+    @EnumSource(GameService.Storage.class)
+    void priceRangeFollowsPriceChanges(GameService.Storage storage) {
+        GameService service = seeded(storage, 500);
+        List<Videogame> all = service.listAll();
+        for (int i = 0; i < all.size(); i += 5) {
+            assertTrue(service.updatePrice(OWNER, all.get(i).getID(), 1000 + i));
+        }
+
+        List<Videogame> found = service.findByPriceRange(1000, 2999);
+        List<Videogame> expected = all.stream()
+                .filter(vg -> vg.getPriceCents() >= 1000 && vg.getPriceCents() <= 2999)
+                .sorted(Comparator.comparingLong(Videogame::getPriceCents).thenComparingInt(Videogame::getID))
+                .toList();
+        assertEquals(ids(expected), ids(found));
+
+        List<Videogame> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            GameService.Page page = service.listByPrice(cursor, 37);
+            paged.addAll(page.games());
+            cursor = page.next();
+        } while (cursor != null);
+        assertEquals(ids(all.stream()
+                .sorted(Comparator.comparingLong(Videogame::getPriceCents).thenComparingInt(Videogame::getID))
+                .toList()), ids(paged));
+    }
+
+    @ParameterizedTest
+    @EnumSource(GameService.Storage.class)
+    void stockRangeReconcilesReservations(GameService.Storage storage) {
+        GameService service = seeded(storage, 300);
+        SplittableRandom rnd = new SplittableRandom(4);
+        for (Videogame vg : service.listAll()) {
+            int qty = rnd.nextInt(0, 5);
+            if (!vg.tryReserve(qty)) vg.release(rnd.nextInt(1, 3));
+        }
+        assertTrue(service.updateStock(OWNER, service.listAll().get(0).getID(), 2));
+
+        List<Videogame> low = service.lowStock(OWNER, 5);
+        assertEquals(ids(service.listAll().stream()
+                .filter(vg -> vg.getStock() < 5)
+                .sorted(Comparator.comparingInt(Videogame::getStock).thenComparingInt(Videogame::getID))
+                .toList()), ids(low));
+    }
+
+    @ParameterizedTest
+    @EnumSource(GameService.Storage.class)
+    void pagingSkipsRemovedGames(GameService.Storage storage) {
+        GameService service = seeded(storage, 250);
+        List<Videogame> all = service.listAll();
+        for (int i = 0; i < all.size(); i += 3) {
+            assertTrue(service.removeGame(OWNER, service.findByID(all.get(i).getID())));
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < all.size(); i++) {
+            if (i % 3 != 0) expected.add(all.get(i).getID());
+        }
+
+        List<Videogame> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            GameService.Page page = service.listPage(cursor, 20);
+            paged.addAll(page.games());
+            cursor = page.next();
+        } while (cursor != null);
+        assertEquals(expected, ids(paged));
+        assertEquals(expected, ids(service.listAll()));
+        assertNull(service.findByID(all.get(0).getID()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(GameService.Storage.class)
+    void inventoryReportAddsUpToTheCatalog(GameService.Storage storage) {
+        GameService service = seeded(storage, 3_000);
+        InventoryReport report = service.inventoryReport(OWNER);
+
+        List<Videogame> all = service.listAll();
+        assertEquals(all.size(), report.total().games());
+        assertEquals(all.stream().filter(vg -> vg.getStock() <= 0).count(), report.total().outOfStock());
+        assertEquals(all.stream().mapToLong(vg -> Math.max(vg.getStock(), 0)).sum(), report.total().units());
+        assertEquals(all.stream().mapToLong(vg -> vg.getPriceCents() * Math.max(vg.getStock(), 0)).sum(), report.total().value());
+        assertEquals(all.size(), report.genres().stream().mapToInt(InventoryReport.Line::games).sum());
+        assertEquals(all.size(), report.total().histogram().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private static List<Integer> ids(List<Videogame> games) {
+        return games.stream().map(Videogame::getID).toList();
+    }
+}
@@ -0,0 +1,148 @@
+package services;
+
+import models.Customer;
+import models.ShoppingCart;
+import models.Videogame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderLedger: consecutive order IDs across segments, and recovery that keeps every acknowledged order and drops a torn tail.
+ */
+class OrderLedgerTest {
+
+    private static final int SEGMENT = 4096; // SMALL, SO A FEW HUNDRED ORDERS SPAN SEVERAL SEGMENTS
+
+    @TempDir
+    Path dir;
+
+    private List<ShoppingCart.Line> lines;
+
+    @BeforeEach
+    void setUp() {
+        Customer c = new Customer("ledger-test", "pw");
+        c.getCart().add(new Videogame("A", Videogame.Genre.values()[0], "d", 1999, 10));
+        c.getCart().add(new Videogame("B", null, "d", 500, 10), 2);
+        lines = List.copyOf(c.getCart().getLines());
+    }
+
+    @Test
+    void queuedAppendsGetConsecutiveIdsAndSurviveReopening() throws Exception {
+        int orders = 400;
+        try (OrderLedger ledger = new OrderLedger(dir, SEGMENT)) {
+            List<CompletableFuture<Long>> done = new ArrayList<>();
+            for (int i = 0; i < orders; i++) {
+                done.add(ledger.append("user" + i, lines, 2999, 1000L + i));
+            }
+            Set<Long> ids = new HashSet<>();
+            for (CompletableFuture<Long> f : done) {
+                ids.add(f.join());
+            }
+            assertEquals(orders, ids.size());
+            assertEquals(1L, ids.stream().min(Long::compare).orElseThrow());
+            assertEquals((long) orders, ids.stream().max(Long::compare).orElseThrow());
+            assertEquals(orders, ledger.lastOrderId());
+        }
+        assertTrue(segments().size() > 1, "rolled over to new segments");
+
+        try (OrderLedger reopened = new OrderLedger(dir, SEGMENT)) {
+            assertEquals(orders, reopened.lastOrderId());
+            assertEquals(orders + 1, reopened.append("next", lines, 1, 1).join());
+        }
+    }
+
+    @Test
+    void recordsTheUsername() throws Exception {
+        try (OrderLedger ledger = new OrderLedger(dir, SEGMENT)) {
+            ledger.append("zoë", lines, 2999, 1).join();
+        }
+        byte[] segment = Files.readAllBytes(segments().get(0));
+        byte[] name = "zoë".getBytes(StandardCharsets.UTF_8);
+        int payload = 16 + 8; // SEGMENT HEADER, RECORD FRAME
+        assertEquals(name.length, ByteBuffer.wrap(segment).getInt(payload + 28));
+        assertEquals("zoë", new String(segment, payload + 32, name.length, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void tornTailIsDroppedAndItsIdReused() throws Exception {
+        try (OrderLedger ledger = new OrderLedger(dir, SEGMENT)) {
+            for (int i = 0; i < 5; i++) {
+                ledger.append("user", lines, 2999, i).join();
+            }
+        }
+        // flip a byte inside the last record (bad CRC) and leave a half-written record after it
+        try (FileChannel ch = FileChannel.open(segments().get(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer m = ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size());
+            int pos = 16, last = -1;
+            while (m.getInt(pos) != 0) {
+                last = pos;
+                pos += 8 + m.getInt(pos);
+            }
+            m.put(last + 20, (byte) (m.get(last + 20) ^ 1));
+            m.putInt(pos, 80).put(pos + 12, (byte) 7);
+            m.force();
+        }
+
+        try (OrderLedger recovered = new OrderLedger(dir, SEGMENT)) {
+            assertEquals(4, recovered.lastOrderId());
+            assertEquals(5, recovered.append("user", lines, 2999, 5).join());
+        }
+        try (OrderLedger again = new OrderLedger(dir, SEGMENT)) {
+            assertEquals(5, again.lastOrderId());
+        }
+    }
+
+    @Test
+    void oversizedOrderFailsWithoutTakingAnId() throws Exception {
+        List<ShoppingCart.Line> huge = new ArrayList<>();
+        for (int i = 0; i < SEGMENT / 16; i++) huge.add(lines.get(0));
+        try (OrderLedger ledger = new OrderLedger(dir, SEGMENT)) {
+            CompletableFuture<Long> tooBig = ledger.append("user", huge, 1, 1);
+            assertTrue(tooBig.handle((id, e) -> e != null).join());
+            assertEquals(1, ledger.append("user", lines, 1, 1).join());
+        }
+    }
+
+    @Test
+    void appendAfterCloseFailsAtOnce() throws Exception {
+        OrderLedger ledger = new OrderLedger(dir, SEGMENT);
+        ledger.close();
+        assertTrue(ledger.append("user", lines, 1, 1).isCompletedExceptionally());
+        ledger.close(); // second close is harmless
+    }
+
+    @Test
+    void refusesAnOlderSegmentFormat() throws Exception {
+        try (OrderLedger ledger = new OrderLedger(dir, SEGMENT)) {
+            ledger.append("user", lines, 1, 1).join();
+        }
+        try (FileChannel ch = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(4).putInt(0, 1), 4); // format 1
+        }
+        assertThrows(IOException.class, () -> new OrderLedger(dir, SEGMENT));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package services;
+
+import models.Customer;
+import models.ShoppingCart;
+import models.Videogame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SalesStats: the incrementally kept best sellers equal a full sort of the per-game counts, and the sliding
+ * windows forget orders once they fall out.
+ */
+class SalesStatsTest {
+
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void topSellersMatchAFullSort() {
+        SalesStats stats = new SalesStats();
+        SplittableRandom rnd = new SplittableRandom(2);
+        List<Videogame> games = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            games.add(new Videogame("Game " + i, Videogame.Genre.values()[i % Videogame.Genre.values().length], "d", 100 + i, 1_000_000));
+        }
+        Map<Videogame, Long> units = new HashMap<>();
+        long now = 1_000_000_000L;
+        for (int order = 0; order < 5_000; order++) {
+            Customer c = new Customer("c", "p");
+            for (int l = rnd.nextInt(1, 4); l > 0; l--) {
+                // skewed, so the best-seller list keeps changing near its tail
+                Videogame vg = games.get(Math.min(rnd.nextInt(games.size()), rnd.nextInt(games.size())));
+                c.getCart().add(vg, rnd.nextInt(1, 3));
+            }
+            for (ShoppingCart.Line line : c.getCart().getLines()) {
+                units.merge(line.getGame(), (long) line.getQuantity(), Long::sum);
+            }
+            stats.record(receipt(c, now));
+        }
+
+        SalesStats.Report report = stats.report(SalesStats.TRACKED, now);
+        List<Long> expected = units.values().stream().sorted(Comparator.reverseOrder()).limit(SalesStats.TRACKED).toList();
+        assertEquals(expected, report.topSellers().stream().map(SalesStats.Seller::units).toList());
+        for (SalesStats.Seller s : report.topSellers()) {
+            assertEquals(units.get(s.game()), s.units());
+            assertEquals(units.get(s.game()) * s.game().getPriceCents(), s.revenue());
+        }
+        assertEquals(5, stats.report(5, now).topSellers().size());
+        assertEquals(5_000, report.orders());
+        assertEquals(units.values().stream().mapToLong(Long::longValue).sum(), report.units());
+        assertEquals(report.units(), report.genres().stream().mapToLong(SalesStats.GenreSales::units).sum());
+    }
+
+    @Test
+    void windowsDropOldOrders() {
+        SalesStats stats = new SalesStats();
+        Videogame vg = new Videogame("Windowed", null, "d", 1000, 100);
+        long t0 = 10 * 24 * 60 * MINUTE;
+        for (int i = 0; i < 3; i++) {
+            Customer c = new Customer("c", "p");
+            c.getCart().add(vg);
+            stats.record(receipt(c, t0 + i * MINUTE)); // one order a minute
+        }
+
+        SalesStats.Report report = stats.report(1, t0 + 2 * MINUTE);
+        assertEquals(List.of(1L, 3L, 3L), report.rates().stream().map(SalesStats.Rate::orders).toList());
+        report = stats.report(1, t0 + 2 * 60 * MINUTE);
+        assertEquals(List.of(0L, 0L, 3L), report.rates().stream().map(SalesStats.Rate::orders).toList());
+        report = stats.report(1, t0 + 2 * 24 * 60 * MINUTE);
+        assertEquals(List.of(0L, 0L, 0L), report.rates().stream().map(SalesStats.Rate::orders).toList());
+        assertEquals(3, report.orders()); // running totals never expire
+        assertNull(report.genres().get(report.genres().size() - 1).genre()); // the genre-less slot is listed
+    }
+
+    private static CartService.Receipt receipt(Customer c, long timestamp) {
+        return new CartService.Receipt(0, c, List.copyOf(c.getCart().getLines()), c.getCart().size(),
+                c.getCart().getTotal(), timestamp);
+    }
+}
@@ -0,0 +1,120 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TextIndex: BM25 ranking with MaxScore pruning returns the same top k as scoring every game.
+ */
+class TextIndexTest {
+
+    private static final String[] VOCAB = {
+            "space", "farm", "rpg", "racing", "puzzle", "dragon", "castle", "online", "coop", "story",
+            "open", "world", "retro", "pixel", "strategy", "card", "horror", "zombie", "ocean", "city"
+    };
+
+    @Test
+    void titleWordsOutrankDescriptionWords() {
+        TextIndex index = new TextIndex();
+        index.put(1, "Harvest Days", "A relaxing space farming game");
+        index.put(2, "Space Farm", "A relaxing harvest game");
+        index.put(3, "Puzzle Box", "Nothing to see");
+
+        assertArrayEquals(new int[]{2, 1}, index.search("space", 10));
+        assertArrayEquals(new int[]{2, 1}, index.search("Space farms", 10)); // plural stripped
+        assertArrayEquals(new int[]{2}, index.search("space", 1));
+        assertArrayEquals(new int[0], index.search("the of and", 10));     // stop words only
+        assertArrayEquals(new int[0], index.search("space", 0));
+    }
+
+    @Test
+    void removeAndReplaceDropOldPostings() {
+        TextIndex index = new TextIndex();
+        index.put(1, "Dragon Castle", "old description");
+        index.put(2, "Castle Siege", null);
+        index.put(1, "Ocean Voyage", "new description");
+        index.remove(2);
+
+        assertArrayEquals(new int[0], index.search("castle", 10));
+        assertArrayEquals(new int[]{1}, index.search("ocean", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void prunedTopKMatchesExhaustiveScoring() {
+        SplittableRandom rnd = new SplittableRandom(9);
+        TextIndex index = new TextIndex();
+        Map<Integer, String[]> docs = new HashMap<>();
+        for (int id = 1; id <= 1_500; id++) {
+            String title = words(rnd, 1 + rnd.nextInt(3));
+            String desc = words(rnd, rnd.nextInt(12));
+            index.put(id, title, desc);
+            docs.put(id, new String[]{title, desc});
+        }
+        for (int id = 1; id <= 1_500; id += 7) {
+            index.remove(id);
+            docs.remove(id);
+        }
+
+        for (int q = 0; q < 300; q++) {
+            String query = words(rnd, 1 + rnd.nextInt(4));
+            int k = 1 + rnd.nextInt(20);
+            Map<Integer, Double> scores = bruteScores(docs, query);
+            List<Double> expected = new ArrayList<>(scores.values());
+            expected.sort((a, b) -> Double.compare(b, a));
+
+            int[] got = index.search(query, k);
+            assertEquals(Math.min(k, expected.size()), got.length, query);
+            for (int i = 0; i < got.length; i++) {
+                assertTrue(scores.containsKey(got[i]), query);
+                assertEquals(expected.get(i), scores.get(got[i]), 1e-9, query + " rank " + i);
+            }
+        }
+    }
+
+    private static String words(SplittableRandom rnd, int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            // skewed, so some terms are common and others rare, as pruning expects
+            sb.append(VOCAB[Math.min(rnd.nextInt(VOCAB.length), rnd.nextInt(VOCAB.length))]).append(' ');
+        }
+        return sb.toString();
+    }
+
+    // BM25 of every game containing a query term, straight from the definition.
+    private static Map<Integer, Double> bruteScores(Map<Integer, String[]> docs, String query) {
+        Map<Integer, Map<String, Integer>> tfs = new HashMap<>();
+        Map<Integer, Integer> lengths = new HashMap<>();
+        long total = 0;
+        for (var e : docs.entrySet()) {
+            Map<String, Integer> tf = new HashMap<>();
+            List<String> title = TextIndex.tokens(e.getValue()[0]);
+            List<String> desc = TextIndex.tokens(e.getValue()[1]);
+            for (String t : title) tf.merge(t, TextIndex.TITLE_WEIGHT, Integer::sum);
+            for (String t : desc) tf.merge(t, 1, Integer::sum);
+            int length = title.size() * TextIndex.TITLE_WEIGHT + desc.size();
+            tfs.put(e.getKey(), tf);
+            lengths.put(e.getKey(), length);
+            total += length;
+        }
+        double avgdl = (double) total / docs.size();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : TextIndex.tokens(query).stream().distinct().toList()) {
+            int df = (int) tfs.values().stream().filter(tf -> tf.containsKey(term)).count();
+            if (df == 0) continue;
+            double idf = TextIndex.idf(docs.size(), df);
+            for (var e : tfs.entrySet()) {
+                Integer tf = e.getValue().get(term);
+                if (tf != null) scores.merge(e.getKey(), TextIndex.bm25(idf, tf, lengths.get(e.getKey()), avgdl), Double::sum);
+            }
+        }
+        return scores;
+    }
+}
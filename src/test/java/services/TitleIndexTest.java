@@ -0,0 +1,169 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TitleIndex: trigram substring search and BK-tree fuzzy search give the same answers as scanning every title,
+ * including after removals and renames, and words no title uses any more are pruned from the BK-tree.
+ */
+class TitleIndexTest {
+
+    private static final String[] WORDS = {
+            "star", "stars", "quest", "farm", "days", "puzzle", "master", "dragon", "knight", "space",
+            "racer", "shadow", "legend", "island", "empire", "ninja", "castle", "galaxy", "zombie", "wizard"
+    };
+
+    @Test
+    void substringSearchFindsEveryTitleContainingTheQuery() {
+        TitleIndex index = new TitleIndex();
+        index.add(1, "Stardew Valley");
+        index.add(2, "Star Wars: Squadrons");
+        index.add(3, "Mega Man");
+        index.add(4, "Lone Star");
+
+        assertArrayEquals(new int[]{1, 2, 4}, index.search("STAR"));
+        assertArrayEquals(new int[]{2}, index.search("wars: sq"));
+        assertArrayEquals(new int[]{3}, index.search("an"));     // shorter than a trigram: scanned
+        assertArrayEquals(new int[0], index.search("starx"));
+    }
+
+    @Test
+    void removeAndRenameUpdateThePostings() {
+        TitleIndex index = new TitleIndex();
+        index.add(1, "Dragon Quest");
+        index.add(2, "Dragon Racer");
+        index.remove(1);
+        index.rename(2, "Space Racer");
+
+        assertArrayEquals(new int[0], index.search("dragon"));
+        assertArrayEquals(new int[]{2}, index.search("space"));
+        assertEquals(1, index.size());
+        index.remove(1); // already gone
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void fuzzyToleratesTyposAndRanksClosestFirst() {
+        TitleIndex index = new TitleIndex();
+        index.add(1, "Star Quest");
+        index.add(2, "Stars Quest");
+        index.add(3, "Farm Days 2");
+        index.add(4, "Farm Days 3");
+
+        assertArrayEquals(new int[]{1, 2}, index.fuzzy("Star Qest", 2, 10));
+        assertArrayEquals(new int[]{1}, index.fuzzy("Star Qest", 2, 1));
+        assertArrayEquals(new int[]{3}, index.fuzzy("farm dais 2", 2, 10)); // digits must match exactly
+        assertArrayEquals(new int[0], index.fuzzy("qxxst", 2, 10));
+        assertArrayEquals(new int[0], index.fuzzy("   ", 2, 10));
+    }
+
+    @Test
+    void indexedSearchesMatchBruteForce() {
+        SplittableRandom rnd = new SplittableRandom(5);
+        TitleIndex index = new TitleIndex();
+        String[] titles = new String[600];
+        for (int id = 1; id < titles.length; id++) {
+            titles[id] = WORDS[rnd.nextInt(WORDS.length)] + " " + WORDS[rnd.nextInt(WORDS.length)] + " " + rnd.nextInt(5);
+            index.add(id, titles[id]);
+        }
+        for (int id = 1; id < titles.length; id += 3) { // drop a third, rename some others
+            index.remove(id);
+            titles[id] = null;
+            if (id + 1 < titles.length && rnd.nextBoolean()) {
+                titles[id + 1] = WORDS[rnd.nextInt(WORDS.length)] + " " + WORDS[rnd.nextInt(WORDS.length)];
+                index.rename(id + 1, titles[id + 1]);
+            }
+        }
+
+        for (int q = 0; q < 200; q++) {
+            String word = WORDS[rnd.nextInt(WORDS.length)];
+            String sub = word.substring(rnd.nextInt(word.length() / 2), word.length());
+            assertArrayEquals(scan(titles, sub), index.search(sub), sub);
+
+            String typo = mutate(word, rnd) + " " + WORDS[rnd.nextInt(WORDS.length)];
+            assertArrayEquals(bruteFuzzy(titles, typo, 2, 15), index.fuzzy(typo, 2, 15), typo);
+        }
+    }
+
+    @Test
+    void deadWordsArePrunedFromTheTree() {
+        SplittableRandom rnd = new SplittableRandom(6);
+        TitleIndex index = new TitleIndex();
+        String[] titles = new String[1001];
+        for (int id = 1; id < titles.length; id++) {
+            StringBuilder word = new StringBuilder();
+            for (int i = 0; i < 7; i++) word.append((char) ('a' + rnd.nextInt(26)));
+            titles[id] = word + " quest " + id;
+            index.add(id, titles[id]);
+        }
+        int full = index.treeSize();
+        String[] removed = titles.clone();
+        for (int id = 1; id < titles.length; id++) {
+            if (id % 5 != 0) {
+                index.remove(id);
+                titles[id] = null;
+            }
+        }
+        assertTrue(index.treeSize() < full / 2, "tree rebuilt without the dead words: " + index.treeSize());
+
+        index.add(1, removed[1]); // a pruned word comes back
+        titles[1] = removed[1];
+        for (int id = 1; id < removed.length; id += 7) {
+            String typo = mutate(removed[id].substring(0, 7), rnd) + " quest";
+            assertArrayEquals(bruteFuzzy(titles, typo, 2, 15), index.fuzzy(typo, 2, 15), typo);
+        }
+        assertArrayEquals(new int[]{1}, index.fuzzy(removed[1], 2, 15));
+    }
+
+    @Test
+    void levenshteinDistance() {
+        assertEquals(0, TitleIndex.distance("quest", "quest"));
+        assertEquals(1, TitleIndex.distance("quest", "qest"));
+        assertEquals(1, TitleIndex.distance("quest", "quesst"));
+        assertEquals(1, TitleIndex.distance("quest", "guest"));
+        assertEquals(3, TitleIndex.distance("kitten", "sitting"));
+        assertEquals(0, TitleIndex.allowedDistance("ab", 2));
+        assertEquals(1, TitleIndex.allowedDistance("quest", 2));
+        assertEquals(2, TitleIndex.allowedDistance("dragon", 2));
+        assertEquals(0, TitleIndex.allowedDistance("2024", 2));
+    }
+
+    private static int[] scan(String[] titles, String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        return IntStream.range(1, titles.length)
+                .filter(id -> titles[id] != null && titles[id].toLowerCase(Locale.ROOT).contains(q))
+                .toArray();
+    }
+
+    private static int[] bruteFuzzy(String[] titles, String query, int maxDistance, int limit) {
+        String[] terms = TitleIndex.terms(query);
+        List<int[]> scored = new ArrayList<>();
+        for (int id = 1; id < titles.length; id++) {
+            if (titles[id] == null) continue;
+            int score = TitleIndex.score(terms, maxDistance, titles[id]);
+            if (score >= 0) scored.add(new int[]{score, id});
+        }
+        scored.sort(Comparator.<int[]>comparingInt(s -> s[0]).thenComparingInt(s -> s[1]));
+        return scored.stream().limit(limit).mapToInt(s -> s[1]).toArray();
+    }
+
+    // One random edit (substitution, deletion or insertion) of a word.
+    private static String mutate(String word, SplittableRandom rnd) {
+        int i = rnd.nextInt(word.length());
+        char c = (char) ('a' + rnd.nextInt(26));
+        return switch (rnd.nextInt(3)) {
+            case 0 -> word.substring(0, i) + c + word.substring(i + 1);
+            case 1 -> word.substring(0, i) + word.substring(i + 1);
+            default -> word.substring(0, i) + c + word.substring(i);
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package services;
+
+import exceptions.StoreExceptions;
+import models.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UserJournal: replaying the journal over the snapshot, compaction folding it into a fresh snapshot, and torn batches
+ * never leaving half a record in the file.
+ */
+class UserJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayAppliesCompleteRecordsAndIgnoresATornTail() throws Exception {
+        Path journal = dir.resolve("users.journal");
+        Files.writeString(journal, String.join("\n",
+                "ADD;alice;pw;CUSTOMER",
+                "ADD;bob;pw;OWNER",
+                "ADD;alice;other;CUSTOMER", // name taken: skipped
+                "PASS;alice;new",
+                "PASS;nobody;x",            // unknown user: skipped
+                "BOGUS;record",
+                "DEL;bob",
+                "ADD;carol;pw;CUST"), StandardCharsets.UTF_8); // no newline: torn while writing
+
+        UserService users = new UserService();
+        assertEquals(4, UserJournal.replay(journal, users));
+        assertTrue(users.login("alice", "new").isPresent());
+        assertTrue(users.login("alice", "pw").isEmpty());
+        assertFalse(users.isUsernameTaken("bob"));
+        assertFalse(users.isUsernameTaken("carol"));
+    }
+
+    @Test
+    void replayOfAMissingJournalIsANoOp() throws Exception {
+        assertEquals(0, UserJournal.replay(dir.resolve("absent.journal"), new UserService()));
+    }
+
+    @Test
+    void journaledChangesReplayToTheSameUsersAndCompactIntoTheSnapshot() throws Exception {
+        Path journalFile = dir.resolve("users.journal");
+        Path snapshot = dir.resolve("users.txt");
+        UserService users = new UserService();
+        UserJournal journal = new UserJournal(journalFile, snapshot, users::getUsers);
+        users.setJournal(journal);
+
+        User dave = users.register("dave", "pw");
+        users.changePass(dave, "pw", "pw2");
+        User erin = users.register("erin", "pw");
+        users.registerOwner("frank", "boss");
+        users.removeUser(erin);
+
+        // every change above waited for its record to reach the disk, so the journal alone rebuilds them
+        UserService replayed = new UserService();
+        assertEquals(5, UserJournal.replay(journalFile, replayed));
+        assertEquals(describe(users.getUsers()), describe(replayed.getUsers()));
+
+        users.setJournal(null);
+        journal.close();
+        assertEquals(0, Files.size(journalFile), "journal emptied by compaction");
+
+        UserService loaded = new UserService();
+        UserBulkLoader.load(snapshot, loaded);
+        assertEquals(describe(users.getUsers()), describe(loaded.getUsers()));
+        assertTrue(loaded.login("dave", "pw2").isPresent());
+        assertEquals(User.Role.OWNER, loaded.login("frank", "boss").orElseThrow().getRole());
+        assertFalse(loaded.isUsernameTaken("erin"));
+    }
+
+    @Test
+    void hostileNamesAndPasswordsCannotForgeRecords() throws Exception {
+        Path journalFile = dir.resolve("users.journal");
+        UserService users = new UserService();
+        UserJournal journal = new UserJournal(journalFile, dir.resolve("users.txt"), users::getUsers);
+        users.setJournal(journal);
+        User dave = users.register("dave", "pw");
+
+        String forged = "x\nADD;mallory;pw;OWNER";
+        assertThrows(StoreExceptions.InvalidInputException.class, () -> users.register(forged, "pw"));
+        assertThrows(StoreExceptions.InvalidInputException.class, () -> users.register("eve", "pw;OWNER"));
+        assertThrows(StoreExceptions.InvalidInputException.class, () -> users.register("eve", "pw\rDEL;dave"));
+        assertThrows(StoreExceptions.InvalidInputException.class, () -> users.registerOwner("a;b", "pw"));
+        assertThrows(StoreExceptions.InvalidInputException.class, () -> users.changePass(dave, "pw", forged));
+        assertFalse(users.isUsernameTaken(forged));
+        assertTrue(users.login("dave", "pw").isPresent());
+
+        UserService replayed = new UserService();
+        assertEquals(1, UserJournal.replay(journalFile, replayed));
+        assertEquals(describe(users.getUsers()), describe(replayed.getUsers()));
+        assertFalse(replayed.isUsernameTaken("mallory"));
+        assertTrue(replayed.login("dave", "pw").isPresent());
+        users.setJournal(null);
+        journal.close();
+    }
+
+    @Test
+    void aBatchThatFailsPartwayIsCutBackOffTheFile() throws Exception {
+        Path journalFile = dir.resolve("users.journal");
+        FlakyChannel channel = new FlakyChannel(journalFile);
+        UserService users = new UserService();
+        UserJournal journal = new UserJournal(channel, dir.resolve("users.txt"), users::getUsers);
+        users.setJournal(journal);
+
+        users.register("alice", "pw");
+        channel.tearNextWrite = true;
+        assertThrows(StoreExceptions.UserException.class, () -> users.register("bob", "pw"));
+        assertFalse(users.isUsernameTaken("bob"));
+        users.register("carol", "pw");
+
+        assertEquals(List.of("ADD;alice;pw;CUSTOMER", "ADD;carol;pw;CUSTOMER"), Files.readAllLines(journalFile));
+        UserService replayed = new UserService();
+        assertEquals(2, UserJournal.replay(journalFile, replayed));
+        assertEquals(describe(users.getUsers()), describe(replayed.getUsers()));
+        users.setJournal(null);
+        journal.close();
+    }
+
+    @Test
+    void theWriterStopsIfATornBatchCannotBeCutBack() throws Exception {
+        Path journalFile = dir.resolve("users.journal");
+        FlakyChannel channel = new FlakyChannel(journalFile);
+        UserService users = new UserService();
+        UserJournal journal = new UserJournal(channel, dir.resolve("users.txt"), users::getUsers);
+        users.setJournal(journal);
+
+        channel.tearNextWrite = true;
+        channel.failTruncate = true;
+        assertThrows(StoreExceptions.UserException.class, () -> users.register("bob", "pw"));
+        channel.failTruncate = false;
+        // the torn "ADD;bo" stays, so nothing may be appended behind it
+        assertThrows(StoreExceptions.UserException.class, () -> users.register("carol", "pw"));
+        assertFalse(users.isUsernameTaken("carol"));
+        assertEquals(0, UserJournal.replay(journalFile, new UserService()));
+        users.setJournal(null);
+        channel.close();
+    }
+
+    @Test
+    void writeSnapshotReplacesTheFileWhole() throws Exception {
+        Path snapshot = dir.resolve("users.txt");
+        Files.writeString(snapshot, "stale;stale;CUSTOMER\n".repeat(100));
+        UserService users = new UserService();
+        users.registerOwner("owner", "owner123");
+        users.register("customer", "customer123");
+        UserJournal.writeSnapshot(snapshot, users.getUsers());
+
+        assertEquals(List.of("owner;owner123;OWNER", "customer;customer123;CUSTOMER"), Files.readAllLines(snapshot));
+        assertFalse(Files.exists(dir.resolve("users.txt.tmp")));
+    }
+
+    /**
+     * Journal channel that can tear a write in half (write part of the buffer, then fail) and refuse to truncate.
+     */
+    private static final class FlakyChannel extends FileChannel {
+        private final FileChannel file;
+        volatile boolean tearNextWrite;
+        volatile boolean failTruncate;
+
+        FlakyChannel(Path path) throws IOException {
+            file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!tearNextWrite) return file.write(src);
+            tearNextWrite = false;
+            ByteBuffer half = src.duplicate();
+            half.limit(src.position() + src.remaining() / 2);
+            int n = file.write(half);
+            src.position(src.position() + n);
+            throw new IOException("disk full");
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncate) throw new IOException("truncate refused");
+            file.truncate(size);
+            return this;
+        }
+
+        @Override public int read(ByteBuffer dst) throws IOException { return file.read(dst); }
+        @Override public long read(ByteBuffer[] dsts, int offset, int length) throws IOException { return file.read(dsts, offset, length); }
+        @Override public long write(ByteBuffer[] srcs, int offset, int length) throws IOException { return file.write(srcs, offset, length); }
+        @Override public long position() throws IOException { return file.position(); }
+        @Override public FileChannel position(long newPosition) throws IOException { file.position(newPosition); return this; }
+        @Override public long size() throws IOException { return file.size(); }
+        @Override public void force(boolean metaData) throws IOException { file.force(metaData); }
+        @Override public long transferTo(long position, long count, WritableByteChannel target) throws IOException { return file.transferTo(position, count, target); }
+        @Override public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException { return file.transferFrom(src, position, count); }
+        @Override public int read(ByteBuffer dst, long position) throws IOException { return file.read(dst, position); }
+        @Override public int write(ByteBuffer src, long position) throws IOException { return file.write(src, position); }
+        @Override public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException { return file.map(mode, position, size); }
+        @Override public FileLock lock(long position, long size, boolean shared) throws IOException { return file.lock(position, size, shared); }
+        @Override public FileLock tryLock(long position, long size, boolean shared) throws IOException { return file.tryLock(position, size, shared); }
+        @Override protected void implCloseChannel() throws IOException { file.close(); }
+    }
+
+    private static List<String> describe(List<User> users) {
+        return users.stream().map(u -> u.getUsername() + ";" + u.getPassword() + ";" + u.getRole()).toList();
+    }
+}
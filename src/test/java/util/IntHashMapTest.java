@@ -0,0 +1,76 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IntHashMap: deletes shift later entries of a probe chain back, so lookups never stop early at a hole.
+ */
+class IntHashMapTest {
+
+    @Test
+    void putGetRemove() {
+        IntHashMap<String> map = new IntHashMap<>();
+        assertNull(map.put(1, "a"));
+        assertEquals("a", map.put(1, "b"));
+        assertEquals("b", map.putIfAbsent(1, "c"));
+        assertNull(map.putIfAbsent(2, "c"));
+        assertEquals(2, map.size());
+        assertTrue(map.containsKey(2));
+        assertEquals("b", map.remove(1));
+        assertNull(map.remove(1));
+        assertNull(map.get(1));
+        assertEquals(1, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(2));
+    }
+
+    @Test
+    void deletingFromTheMiddleOfAProbeChainKeepsTheRestReachable() {
+        IntHashMap<Integer> map = new IntHashMap<>();
+        // multiples of a large power of two crowd into few home slots, so their probe chains overlap
+        int[] keys = new int[12];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i << 20;
+            map.put(keys[i], i);
+        }
+        for (int i = 0; i < keys.length; i += 2) {
+            assertEquals(i, map.remove(keys[i]));
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i % 2 == 0 ? null : i, map.get(keys[i]), "key " + keys[i]);
+        }
+        assertEquals(keys.length / 2, map.size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        IntHashMap<Integer> map = new IntHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        SplittableRandom rnd = new SplittableRandom(7);
+        for (int op = 0; op < 200_000; op++) {
+            int key = rnd.nextInt(2_000) * (rnd.nextBoolean() ? 1 : 1 << 16); // dense and clustered keys
+            int value = rnd.nextInt();
+            switch (rnd.nextInt(3)) {
+                case 0 -> assertEquals(expected.put(key, value), map.put(key, value));
+                case 1 -> assertEquals(expected.remove(key), map.remove(key));
+                default -> assertEquals(expected.get(key), map.get(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+        assertArrayEquals(expected.keySet().stream().mapToInt(Integer::intValue).sorted().toArray(), keys);
+        for (int key : keys) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected.size(), map.values().size());
+    }
+}